@@ -0,0 +1,68 @@
+package com.etms.benchmark;
+
+import com.etms.dao.EventDAO;
+import com.etms.dao.UserDAO;
+import com.etms.daoimpl.EventDAOImpl;
+import com.etms.daoimpl.UserDAOImpl;
+import com.etms.model.Event;
+import com.etms.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event search and user authentication, each a single query per call, and fetching a
+ * screenful of users one query per ID versus one bulk lookup.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LookupBenchmarks {
+    private static final int SCREEN_SIZE = 500;
+
+    private final EventDAO eventDAO = new EventDAOImpl();
+    private final UserDAO userDAO = new UserDAOImpl();
+
+    @Benchmark
+    public List<Event> searchEvents(SeededDatabase db) throws Exception {
+        return eventDAO.searchEvents(SeededDatabase.SEARCH_KEYWORD);
+    }
+
+    @Benchmark
+    public User authenticate(SeededDatabase db) throws Exception {
+        int userId = 1 + ThreadLocalRandom.current().nextInt(db.users);
+        return userDAO.authenticate(SeededDatabase.userEmail(userId), SeededDatabase.PASSWORD);
+    }
+
+    @Benchmark
+    public List<User> findUsersOneByOne(SeededDatabase db) throws Exception {
+        List<User> users = new ArrayList<>(SCREEN_SIZE);
+        for (int userId : screenOfUserIds(db)) {
+            users.add(userDAO.findById(userId));
+        }
+        return users;
+    }
+
+    @Benchmark
+    public Map<Integer, User> findUsersByIds(SeededDatabase db) throws Exception {
+        return userDAO.findByIds(screenOfUserIds(db));
+    }
+
+    private static List<Integer> screenOfUserIds(SeededDatabase db) {
+        List<Integer> ids = new ArrayList<>(SCREEN_SIZE);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SCREEN_SIZE; i++) {
+            ids.add(1 + random.nextInt(db.users));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,74 @@
+package com.etms.benchmark;
+
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
+import com.etms.dao.PaymentDAO;
+import com.etms.dao.TicketDAO;
+import com.etms.dao.UserDAO;
+import com.etms.daoimpl.PaymentDAOImpl;
+import com.etms.daoimpl.TicketDAOImpl;
+import com.etms.daoimpl.UserDAOImpl;
+import com.etms.model.Payment;
+import com.etms.model.Ticket;
+import com.etms.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Row mapping cost of the mapResultSetTo* methods, measured per row through fixed-size pages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MapperBenchmarks {
+    private static final int ROWS = 500;
+
+    private final TicketDAO ticketDAO = new TicketDAOImpl();
+    private final PaymentDAO paymentDAO = new PaymentDAOImpl();
+    private final UserDAO userDAO = new UserDAOImpl();
+
+    // Per-row figures divide by ROWS, so every page has to come back full
+    @Setup(Level.Trial)
+    public void checkSeededRows(SeededDatabase db) {
+        int tickets = db.events * Math.min(db.ticketsPerEvent, db.venueCapacity);
+        if (db.users < ROWS || tickets < ROWS) {
+            throw new IllegalStateException("MapperBenchmarks needs at least " + ROWS
+                    + " seeded users and tickets; raise -p users / -p ticketsPerEvent");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Page<Ticket> mapTickets(SeededDatabase db) throws Exception {
+        return ticketDAO.findPage(PageRequest.first(ROWS));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Page<Payment> mapPayments(SeededDatabase db) throws Exception {
+        return paymentDAO.findPage(PageRequest.first(ROWS));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Page<User> mapUsers(SeededDatabase db) throws Exception {
+        return userDAO.findPage(PageRequest.first(ROWS));
+    }
+
+    @Benchmark
+    public long streamAllTickets(SeededDatabase db) throws Exception {
+        try (Stream<Ticket> tickets = ticketDAO.streamAll()) {
+            return tickets.count();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.etms.benchmark;
+
+import com.etms.inventory.AvailabilityCounters;
+import com.etms.inventory.SeatInventoryRegistry;
+import com.etms.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * In-memory H2 database (MySQL mode) standing in for the ETMS schema, seeded once per trial.
+ * Dataset sizes are JMH parameters, e.g. {@code -p ticketsPerEvent=20000 -p venueCapacity=50000}.
+ * JMH forks a fresh JVM per parameter combination, so the static connection pool always
+ * points at the database created here.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+    static final String PASSWORD = "password";
+    static final String SEARCH_KEYWORD = "Festival";
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE Venue (VenueID INT AUTO_INCREMENT PRIMARY KEY, VenueName VARCHAR(100), " +
+                    "Location VARCHAR(100), Capacity INT)",
+            "CREATE TABLE Event (EventID INT AUTO_INCREMENT PRIMARY KEY, EventName VARCHAR(200), " +
+                    "Description VARCHAR(1000), Date DATE, Time TIME, TicketPrice DECIMAL(10,2), " +
+                    "EventType VARCHAR(20), VenueID INT, AvailableSeats INT, " +
+                    "DurationMinutes INT NOT NULL DEFAULT 120)",
+            "CREATE TABLE User (UserID INT AUTO_INCREMENT PRIMARY KEY, Name VARCHAR(100), " +
+                    "Email VARCHAR(200) UNIQUE, Phone VARCHAR(20), Password VARCHAR(100), UserType VARCHAR(20))",
+            "CREATE TABLE Ticket (TicketID INT AUTO_INCREMENT PRIMARY KEY, UserID INT, EventID INT, " +
+                    "SeatNumber VARCHAR(20), BookingDate TIMESTAMP, Price DECIMAL(10,2), TicketType VARCHAR(20), " +
+                    "CONSTRAINT uq_ticket_event_seat UNIQUE (EventID, SeatNumber))",
+            "CREATE TABLE Payment (PaymentID INT AUTO_INCREMENT PRIMARY KEY, UserID INT, Amount DECIMAL(10,2), " +
+                    "Status VARCHAR(20), TransactionDate TIMESTAMP)",
+            "CREATE INDEX idx_payment_date ON Payment (TransactionDate)",
+            "CREATE TABLE VenueLayout (VenueID INT PRIMARY KEY, LayoutSpec VARCHAR(4000) NOT NULL)",
+            "CREATE TABLE TicketScan (TicketID INT PRIMARY KEY, EventID INT NOT NULL, Gate VARCHAR(50), " +
+                    "ScannedAt TIMESTAMP NOT NULL)"
+    };
+
+    @Param({ "50" })
+    public int events;
+
+    @Param({ "1000" })
+    public int users;
+
+    @Param({ "1000" })
+    public int ticketsPerEvent;
+
+    @Param({ "5000" })
+    public int venueCapacity;
+
+    // Seats in the box-office hall, where booking benchmarks claim a fresh seat on every call
+    @Param({ "5000000" })
+    public int bookableSeats;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setProperty("etms.db.driver", "org.h2.Driver");
+        System.setProperty("etms.db.url", "jdbc:h2:mem:etms_bench;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                + "NON_KEYWORDS=USER,DATE,TIME,VALUE");
+        System.setProperty("etms.db.username", "sa");
+        System.setProperty("etms.db.password", "");
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    stmt.execute(ddl);
+                }
+            }
+            conn.setAutoCommit(false);
+            seedVenue(conn);
+            seedEvents(conn);
+            seedUsers(conn);
+            seedTicketsAndPayments(conn);
+            conn.commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SeatInventoryRegistry.clear();
+        AvailabilityCounters.clear();
+        DatabaseUtil.shutdown();
+    }
+
+    static String userEmail(int userId) {
+        return "user" + userId + "@bench.etms";
+    }
+
+    // Event in the box-office hall, after the seeded events; it starts with no tickets
+    int bookingEventId() {
+        return events + 1;
+    }
+
+    // Seat labels in the box-office hall run A1 to A{bookableSeats}
+    static String bookableSeat(int number) {
+        return "A" + number;
+    }
+
+    private void seedVenue(Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO Venue (VenueName, Location, Capacity) VALUES (?, ?, ?)")) {
+            stmt.setString(1, "Benchmark Arena");
+            stmt.setString(2, "Bench City");
+            stmt.setInt(3, venueCapacity);
+            stmt.addBatch();
+            stmt.setString(1, "Benchmark Box Office Hall");
+            stmt.setString(2, "Bench City");
+            stmt.setInt(3, bookableSeats);
+            stmt.addBatch();
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO VenueLayout (VenueID, LayoutSpec) VALUES (2, ?)")) {
+            stmt.setString(1, "Box Office|A|1-" + bookableSeats + "|General");
+            stmt.executeUpdate();
+        }
+    }
+
+    private void seedEvents(Connection conn) throws Exception {
+        String[] types = { "Concert", "Sports", "Conference" };
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO Event (EventName, Description, Date, Time, TicketPrice, EventType, VenueID, "
+                        + "AvailableSeats) VALUES (?, ?, ?, ?, ?, ?, 1, ?)")) {
+            for (int i = 1; i <= events; i++) {
+                stmt.setString(1, (i % 10 == 0 ? SEARCH_KEYWORD + " " : "Event ") + i);
+                stmt.setString(2, "Benchmark event number " + i + " with a moderately long description");
+                stmt.setDate(3, Date.valueOf(LocalDate.now().plusDays(i)));
+                stmt.setTime(4, Time.valueOf(LocalTime.of(18, 0)));
+                stmt.setBigDecimal(5, new BigDecimal("49.99"));
+                stmt.setString(6, types[i % types.length]);
+                stmt.setInt(7, venueCapacity - Math.min(ticketsPerEvent, venueCapacity));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO Event (EventName, Description, Date, Time, TicketPrice, EventType, VenueID, "
+                        + "AvailableSeats) VALUES (?, ?, ?, ?, ?, ?, 2, ?)")) {
+            stmt.setString(1, "Box Office Event");
+            stmt.setString(2, "Benchmark event that booking benchmarks sell seats for");
+            stmt.setDate(3, Date.valueOf(LocalDate.now().plusDays(bookingEventId())));
+            stmt.setTime(4, Time.valueOf(LocalTime.of(18, 0)));
+            stmt.setBigDecimal(5, new BigDecimal("49.99"));
+            stmt.setString(6, types[0]);
+            stmt.setInt(7, bookableSeats);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void seedUsers(Connection conn) throws Exception {
+        String hash = Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(PASSWORD.getBytes(StandardCharsets.UTF_8)));
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO User (Name, Email, Phone, Password, UserType) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= users; i++) {
+                stmt.setString(1, "User " + i);
+                stmt.setString(2, userEmail(i));
+                stmt.setString(3, "555-" + i);
+                stmt.setString(4, hash);
+                stmt.setString(5, i == 1 ? "ADMIN" : "CUSTOMER");
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void seedTicketsAndPayments(Connection conn) throws Exception {
+        int perEvent = Math.min(ticketsPerEvent, venueCapacity);
+        // Book every other seat when they fit, so availability listings have to skip booked ones
+        int stride = 2 * perEvent - 1 <= venueCapacity ? 2 : 1;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ticketStmt = conn.prepareStatement(
+                "INSERT INTO Ticket (UserID, EventID, SeatNumber, BookingDate, Price, TicketType) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)");
+                PreparedStatement paymentStmt = conn.prepareStatement(
+                        "INSERT INTO Payment (UserID, Amount, Status, TransactionDate) VALUES (?, ?, ?, ?)")) {
+            int row = 0;
+            for (int eventId = 1; eventId <= events; eventId++) {
+                for (int seat = 1; seat <= perEvent; seat++) {
+                    int userId = 1 + (row % users);
+                    ticketStmt.setInt(1, userId);
+                    ticketStmt.setInt(2, eventId);
+                    ticketStmt.setString(3, "A" + (1 + (seat - 1) * stride));
+                    ticketStmt.setTimestamp(4, now);
+                    ticketStmt.setBigDecimal(5, new BigDecimal("49.99"));
+                    ticketStmt.setString(6, seat % 20 == 0 ? "VIP" : "General");
+                    ticketStmt.addBatch();
+
+                    paymentStmt.setInt(1, userId);
+                    paymentStmt.setBigDecimal(2, new BigDecimal("49.99"));
+                    paymentStmt.setString(3, "COMPLETED");
+                    paymentStmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now().minusMinutes(row)));
+                    paymentStmt.addBatch();
+
+                    if (++row % 1000 == 0) {
+                        ticketStmt.executeBatch();
+                        paymentStmt.executeBatch();
+                    }
+                }
+            }
+            ticketStmt.executeBatch();
+            paymentStmt.executeBatch();
+        }
+    }
+}
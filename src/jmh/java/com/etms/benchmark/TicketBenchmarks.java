@@ -0,0 +1,91 @@
+package com.etms.benchmark;
+
+import com.etms.checkin.ScanResult;
+import com.etms.controller.CheckInController;
+import com.etms.controller.TicketController;
+import com.etms.dao.TicketDAO;
+import com.etms.daoimpl.TicketDAOImpl;
+import com.etms.inventory.SeatHold;
+import com.etms.inventory.SeatInventoryRegistry;
+import com.etms.model.Ticket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Booking and seat-availability hot paths.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TicketBenchmarks {
+    private static final int EVENT_ID = 1;
+
+    static {
+        // Entry codes are disabled without a secret; set before CheckInController loads
+        System.setProperty("etms.checkin.secret", "benchmark-signing-secret");
+    }
+
+    private final TicketController ticketController = new TicketController();
+    private final TicketDAO ticketDAO = new TicketDAOImpl();
+    // Seats in the box-office hall, so every booking claims a fresh seat
+    private final AtomicInteger nextSeat = new AtomicInteger();
+    private final CheckInController checkInController = new CheckInController();
+    private String[] entryTokens;
+    private final AtomicInteger nextScan = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void signEntryTokens(SeededDatabase db) throws Exception {
+        List<Ticket> tickets = ticketDAO.findByEventId(EVENT_ID);
+        entryTokens = new String[tickets.size()];
+        for (int i = 0; i < entryTokens.length; i++) {
+            entryTokens[i] = checkInController.getEntryToken(tickets.get(i));
+        }
+    }
+
+    @Benchmark
+    public Ticket createTicket(SeededDatabase db) throws Exception {
+        String seat = SeededDatabase.bookableSeat(nextSeat.incrementAndGet());
+        Ticket ticket = new Ticket(0, 1, db.bookingEventId(), seat, LocalDateTime.now(),
+                new BigDecimal("49.99"), Ticket.TicketType.General);
+        ticketController.createTicket(ticket);
+        return ticket;
+    }
+
+    // Finds and holds four adjacent seats, then lets them go again
+    @Benchmark
+    public SeatHold holdBestAvailable(SeededDatabase db) throws Exception {
+        SeatHold hold = ticketController.holdBestAvailable(1, EVENT_ID, 4, Ticket.TicketType.General, 60);
+        ticketController.releaseHold(hold.getHoldId(), 1);
+        return hold;
+    }
+
+    // Gate scan: signature check and bitmap lookups; after the first pass every scan is a repeat
+    @Benchmark
+    public ScanResult scanEntryToken(SeededDatabase db) throws Exception {
+        String token = entryTokens[Math.floorMod(nextScan.getAndIncrement(), entryTokens.length)];
+        return checkInController.scanTicket(EVENT_ID, "Gate 1", token);
+    }
+
+    @Benchmark
+    public List<String> getAvailableSeatsCached(SeededDatabase db) throws Exception {
+        return ticketDAO.getAvailableSeats(EVENT_ID);
+    }
+
+    @Benchmark
+    public List<String> getAvailableSeatsReload(SeededDatabase db) throws Exception {
+        SeatInventoryRegistry.invalidate(EVENT_ID);
+        return ticketDAO.getAvailableSeats(EVENT_ID);
+    }
+}
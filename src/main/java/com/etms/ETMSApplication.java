@@ -1,10 +1,35 @@
 package com.etms;
 
+import com.etms.controller.EventController;
+import com.etms.daoimpl.OrganizerDAOImpl;
+import com.etms.daoimpl.UserDAOImpl;
 import com.etms.ui.LoginFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.swing.SwingUtilities;
 
 public class ETMSApplication {
+    private static final Logger logger = LoggerFactory.getLogger(ETMSApplication.class);
+
     public static void main(String[] args) {
+        // Build the event search index and email filters while the user logs in
+        Thread indexer = new Thread(() -> {
+            try {
+                new EventController().preloadSearchIndex();
+            } catch (Exception e) {
+                logger.warn("Search index will be built on first search: {}", e.getMessage());
+            }
+            try {
+                UserDAOImpl.preloadEmailFilter();
+                OrganizerDAOImpl.preloadEmailFilter();
+            } catch (Exception e) {
+                logger.warn("Email filters will be built on first registration: {}", e.getMessage());
+            }
+        }, "etms-warmup");
+        indexer.setDaemon(true);
+        indexer.start();
+
         SwingUtilities.invokeLater(() -> {
             try {
                 // Set look and feel to system default
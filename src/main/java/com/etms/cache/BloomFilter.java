@@ -0,0 +1,102 @@
+package com.etms.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Space-efficient probabilistic set of strings.
+ * {@link #mightContain} never returns false for a value that was added, and returns true for
+ * a value that was not added with roughly the configured false-positive probability. Values
+ * cannot be removed. Bits are set with lock-free updates, so the filter is safe to share.
+ */
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+    private final LongAdder insertions = new LongAdder();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            expectedInsertions = 1;
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        // Optimal size and hash count for n insertions at rate p: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.increment();
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getInsertions() {
+        return insertions.sum();
+    }
+
+    public long getMemoryBytes() {
+        return bitSize / 8;
+    }
+
+    // False-positive probability at the current fill: (1 - e^(-kn/m))^k
+    public double getCurrentFalsePositiveRate() {
+        double fill = 1 - Math.exp(-(double) hashCount * insertions.sum() / bitSize);
+        return Math.pow(fill, hashCount);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BloomFilter[entries=%d, bits=%d, hashes=%d, memory=%d KB, fpp=%.4f%%]",
+                getInsertions(), bitSize, hashCount, getMemoryBytes() / 1024, getCurrentFalsePositiveRate() * 100);
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finished with a MurmurHash3 avalanche
+    private static long hash(String value, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1B3F2A9L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,100 @@
+package com.etms.cache;
+
+import com.etms.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bloom filter over the email addresses registered in one table, used to skip the database
+ * when an email is definitely not taken. Emails are trimmed and lower-cased, matching the
+ * case-insensitive comparison of the email columns. The filter is sized from
+ * {@code etms.bloom.email.expectedInsertions} (or twice the current row count, if larger) and
+ * {@code etms.bloom.email.falsePositiveRate}, and rebuilt every
+ * {@code etms.bloom.email.rebuildSeconds} to drop deleted emails and pick up other instances' writes.
+ */
+public class EmailFilter {
+    private static final Logger logger = LoggerFactory.getLogger(EmailFilter.class);
+
+    private final String name;
+    private final long expectedInsertions = AppConfig.getLong("etms.bloom.email.expectedInsertions", 100000);
+    private final double falsePositiveRate = AppConfig.getDouble("etms.bloom.email.falsePositiveRate", 0.01);
+    private final long rebuildNanos = TimeUnit.SECONDS.toNanos(
+            AppConfig.getLong("etms.bloom.email.rebuildSeconds", 3600));
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile long loadedAt;
+
+    // Reads the registered emails from the database
+    public interface Source {
+        long count() throws Exception;
+
+        void forEach(Consumer<String> sink) throws Exception;
+    }
+
+    public EmailFilter(String name) {
+        this.name = name;
+    }
+
+    // Returns false only if the email is certainly not registered; loads the filter on first use
+    public boolean mightContain(String email, Source source) throws Exception {
+        BloomFilter current = filter;
+        if (current == null || System.nanoTime() - loadedAt >= rebuildNanos) {
+            current = load(source);
+        }
+        return current.mightContain(normalize(email));
+    }
+
+    // Records a saved email in the serving filter and in any filter still being built
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = normalize(email);
+        // Read the building filter first: it is only cleared after it has become the serving one
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        }
+        BloomFilter current = filter;
+        if (current != null && current != next) {
+            current.put(key);
+        }
+    }
+
+    public synchronized BloomFilter load(Source source) throws Exception {
+        BloomFilter current = filter;
+        if (current != null && System.nanoTime() - loadedAt < rebuildNanos) {
+            return current;
+        }
+        long start = System.nanoTime();
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, 2 * source.count()), falsePositiveRate);
+        // Published before the scan so emails saved meanwhile are not missed
+        building = next;
+        try {
+            source.forEach(email -> {
+                if (email != null) {
+                    next.put(normalize(email));
+                }
+            });
+            filter = next;
+            loadedAt = System.nanoTime();
+        } finally {
+            building = null;
+        }
+        logger.info("Loaded {} email filter in {} ms: {}", name, (System.nanoTime() - start) / 1000000, next);
+        return next;
+    }
+
+    public String getStats() {
+        BloomFilter current = filter;
+        return name + " emails: " + (current != null ? current.toString() : "not loaded");
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
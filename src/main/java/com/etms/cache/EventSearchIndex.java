@@ -0,0 +1,245 @@
+package com.etms.cache;
+
+import com.etms.model.Event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over event names and descriptions.
+ * Text is split into lower-case alphanumeric tokens; each token maps to a posting list of
+ * event IDs held in sorted primitive arrays. A query matches events that contain every query
+ * word, either exactly or as a prefix of an indexed token, and results are ranked by how often
+ * and where (name above description) the words occur. Events are copied in and out.
+ */
+public class EventSearchIndex {
+    private static final int NAME_WEIGHT = 4;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // Exact token matches outrank prefix matches of the same word
+    private static final int EXACT_MATCH_BONUS = 2;
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Integer, Event> events = new HashMap<>();
+    private final Map<Integer, String[]> eventTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Event IDs in ascending order with a parallel array of term weights
+    private static final class Postings {
+        int[] ids = new int[4];
+        int[] weights = new int[4];
+        int size;
+
+        void put(int id, int weight) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                weights[pos] = weight;
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(weights, pos, weights, pos + 1, size - pos);
+            ids[pos] = id;
+            weights[pos] = weight;
+            size++;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    // Replaces the whole index with the given events
+    public void rebuild(Collection<Event> all) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            events.clear();
+            eventTerms.clear();
+            for (Event event : all) {
+                add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds or re-indexes an event
+    public void index(Event event) {
+        lock.writeLock().lock();
+        try {
+            removeTerms(event.getEventId());
+            add(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int eventId) {
+        lock.writeLock().lock();
+        try {
+            removeTerms(eventId);
+            events.remove(eventId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns events matching every word of the query, best matches first; a blank query matches all
+    public List<Event> search(String query, int limit) {
+        String[] words = tokenize(query);
+        lock.readLock().lock();
+        try {
+            if (words.length == 0) {
+                return copyOf(events.keySet(), limit);
+            }
+            Map<Integer, Integer> scores = null;
+            for (String word : words) {
+                Map<Integer, Integer> wordScores = score(word);
+                scores = scores == null ? wordScores : intersect(scores, wordScores);
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> a.getValue().equals(b.getValue())
+                    ? Integer.compare(a.getKey(), b.getKey())
+                    : Integer.compare(b.getValue(), a.getValue()));
+            List<Event> results = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (Map.Entry<Integer, Integer> entry : ranked) {
+                if (results.size() >= limit) {
+                    break;
+                }
+                results.add(new Event(events.get(entry.getKey())));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return events.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sums posting weights of every indexed token that equals or starts with the word
+    private Map<Integer, Integer> score(String word) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Postings> entry : terms.subMap(word, true, word + Character.MAX_VALUE, false)
+                .entrySet()) {
+            int multiplier = entry.getKey().length() == word.length() ? EXACT_MATCH_BONUS : 1;
+            Postings postings = entry.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                scores.merge(postings.ids[i], postings.weights[i] * multiplier, Integer::sum);
+            }
+        }
+        return scores;
+    }
+
+    private static Map<Integer, Integer> intersect(Map<Integer, Integer> a, Map<Integer, Integer> b) {
+        Map<Integer, Integer> result = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : a.entrySet()) {
+            Integer other = b.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    private List<Event> copyOf(Collection<Integer> ids, int limit) {
+        List<Integer> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        List<Event> results = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (int i = 0; i < sorted.size() && i < limit; i++) {
+            results.add(new Event(events.get(sorted.get(i))));
+        }
+        return results;
+    }
+
+    // Caller holds the write lock
+    private void add(Event event) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String token : tokenize(event.getEventName())) {
+            weights.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(event.getDescription())) {
+            weights.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        int id = event.getEventId();
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), k -> new Postings()).put(id, entry.getValue());
+        }
+        events.put(id, new Event(event));
+        eventTerms.put(id, weights.keySet().toArray(new String[0]));
+    }
+
+    // Caller holds the write lock
+    private void removeTerms(int eventId) {
+        String[] previous = eventTerms.remove(eventId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous) {
+            Postings postings = terms.get(term);
+            if (postings != null) {
+                postings.remove(eventId);
+                if (postings.size == 0) {
+                    terms.remove(term);
+                }
+            }
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+}
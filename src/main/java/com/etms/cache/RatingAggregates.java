@@ -0,0 +1,193 @@
+package com.etms.cache;
+
+import com.etms.model.RatingSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running review statistics per event: rating sum, review count and a 1-5 star histogram,
+ * plus a leaderboard of events ordered by average rating. Review writes apply their change
+ * with {@link #add} and {@link #remove}; everything is rebuilt from the database after
+ * {@code refreshSeconds} to pick up reviews written by other application instances.
+ *
+ * <p>As in {@link RevenueRollup}, each change carries the {@link System#nanoTime()} taken just
+ * after its commit, and changes committed before the last rebuild started are dropped so a
+ * review is not counted twice. Rebuilds query without holding the lock and replay the changes
+ * that arrived meanwhile before replacing the current totals.
+ */
+public class RatingAggregates {
+    private Map<Integer, Aggregate> aggregates = new HashMap<>();
+    private NavigableSet<Aggregate> leaderboard = new TreeSet<>(RatingAggregates::compareRank);
+    private final long refreshNanos;
+    private long loadedAt;
+    private long loadStartedAt;
+    private long invalidatedAt = System.nanoTime();
+    private boolean loaded;
+    // {eventId, rating, delta, committedNanos} changes recorded while rebuilds are querying
+    private final List<long[]> pending = new ArrayList<>();
+    private int rebuildsRunning;
+
+    // Supplies review counts as {eventId, rating, count} rows
+    @FunctionalInterface
+    public interface Loader {
+        List<int[]> loadRatingCounts() throws Exception;
+    }
+
+    private static final class Aggregate {
+        final int eventId;
+        long sum;
+        int count;
+        final int[] histogram = new int[RatingSummary.MAX_RATING];
+
+        Aggregate(int eventId) {
+            this.eventId = eventId;
+        }
+
+        RatingSummary toSummary() {
+            return new RatingSummary(eventId, count, sum, histogram);
+        }
+    }
+
+    public RatingAggregates(long refreshSeconds) {
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    // Records a new review committed at committedNanos
+    public void add(int eventId, int rating, long committedNanos) {
+        change(eventId, rating, 1, committedNanos);
+    }
+
+    // Records a removed review committed at committedNanos
+    public void remove(int eventId, int rating, long committedNanos) {
+        change(eventId, rating, -1, committedNanos);
+    }
+
+    public RatingSummary getSummary(int eventId, Loader loader) throws Exception {
+        ensureLoaded(loader);
+        synchronized (this) {
+            Aggregate aggregate = aggregates.get(eventId);
+            return aggregate != null ? aggregate.toSummary() : RatingSummary.empty(eventId);
+        }
+    }
+
+    // Summaries for every requested event; events without reviews get an empty summary
+    public Map<Integer, RatingSummary> getSummaries(Collection<Integer> eventIds, Loader loader) throws Exception {
+        ensureLoaded(loader);
+        Map<Integer, RatingSummary> summaries = new HashMap<>();
+        synchronized (this) {
+            for (Integer eventId : eventIds) {
+                Aggregate aggregate = aggregates.get(eventId);
+                summaries.put(eventId, aggregate != null ? aggregate.toSummary() : RatingSummary.empty(eventId));
+            }
+        }
+        return summaries;
+    }
+
+    // Highest average rating first, among events with at least minReviews reviews
+    public List<RatingSummary> getTopRated(int limit, int minReviews, Loader loader) throws Exception {
+        ensureLoaded(loader);
+        List<RatingSummary> top = new ArrayList<>();
+        synchronized (this) {
+            for (Aggregate aggregate : leaderboard) {
+                if (top.size() >= limit) {
+                    break;
+                }
+                if (aggregate.count >= minReviews) {
+                    top.add(aggregate.toSummary());
+                }
+            }
+        }
+        return top;
+    }
+
+    public synchronized void invalidate() {
+        loaded = false;
+        invalidatedAt = System.nanoTime();
+    }
+
+    // Ignored until the totals are loaded and when the last rebuild already read the change
+    private synchronized void change(int eventId, int rating, int delta, long committedNanos) {
+        if (rebuildsRunning > 0) {
+            pending.add(new long[] { eventId, rating, delta, committedNanos });
+        }
+        if (loaded && committedNanos - loadStartedAt >= 0) {
+            apply(aggregates, leaderboard, eventId, rating, delta);
+        }
+    }
+
+    private void ensureLoaded(Loader loader) throws Exception {
+        long started;
+        synchronized (this) {
+            // While loaded, one rebuild at a time; other readers keep using the current totals
+            if (loaded && (rebuildsRunning > 0 || System.nanoTime() - loadedAt < refreshNanos)) {
+                return;
+            }
+            rebuildsRunning++;
+            // Taken before the query, so everything committed earlier is in its result
+            started = System.nanoTime();
+        }
+        try {
+            List<int[]> rows = loader.loadRatingCounts();
+            Map<Integer, Aggregate> newAggregates = new HashMap<>();
+            NavigableSet<Aggregate> newLeaderboard = new TreeSet<>(RatingAggregates::compareRank);
+            for (int[] row : rows) {
+                apply(newAggregates, newLeaderboard, row[0], row[1], row[2]);
+            }
+            synchronized (this) {
+                // A rebuild that started earlier than the installed one, or than invalidate(), is discarded
+                if (loaded ? started - loadStartedAt > 0 : started - invalidatedAt >= 0) {
+                    for (long[] change : pending) {
+                        if (change[3] - started >= 0) {
+                            apply(newAggregates, newLeaderboard, (int) change[0], (int) change[1], (int) change[2]);
+                        }
+                    }
+                    aggregates = newAggregates;
+                    leaderboard = newLeaderboard;
+                    loaded = true;
+                    loadStartedAt = started;
+                    loadedAt = System.nanoTime();
+                }
+            }
+        } finally {
+            synchronized (this) {
+                if (--rebuildsRunning == 0) {
+                    pending.clear();
+                }
+            }
+        }
+    }
+
+    // The aggregate leaves the leaderboard while it changes, since its rank depends on its totals
+    private static void apply(Map<Integer, Aggregate> aggregates, NavigableSet<Aggregate> leaderboard,
+            int eventId, int rating, int delta) {
+        Aggregate aggregate = aggregates.computeIfAbsent(eventId, Aggregate::new);
+        leaderboard.remove(aggregate);
+        aggregate.sum += (long) rating * delta;
+        aggregate.count += delta;
+        if (rating >= RatingSummary.MIN_RATING && rating <= RatingSummary.MAX_RATING) {
+            aggregate.histogram[rating - 1] += delta;
+        }
+        if (aggregate.count <= 0) {
+            aggregates.remove(eventId);
+        } else {
+            leaderboard.add(aggregate);
+        }
+    }
+
+    // Higher average first (compared exactly by cross-multiplying), then more reviews, then event ID
+    private static int compareRank(Aggregate a, Aggregate b) {
+        int byAverage = Long.compare(b.sum * a.count, a.sum * b.count);
+        if (byAverage != 0) {
+            return byAverage;
+        }
+        int byCount = Integer.compare(b.count, a.count);
+        return byCount != 0 ? byCount : Integer.compare(a.eventId, b.eventId);
+    }
+}
@@ -0,0 +1,190 @@
+package com.etms.cache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-aggregated revenue in whole cents, bucketed by hour and by day.
+ * Sums over hour-aligned ranges read at most a day's worth of hourly buckets at each end
+ * plus one bucket per day in between, instead of scanning payments. Callers apply each
+ * committed change with {@link #add}; the buckets are rebuilt from the database after
+ * {@code refreshSeconds} to pick up payments written by other application instances.
+ *
+ * <p>Each change carries the {@link System#nanoTime()} taken just after its commit. A change
+ * committed before the last rebuild started is already in the loaded totals and is dropped,
+ * so a payment committed just before a rebuild is not counted twice. Rebuilds query the
+ * database without holding the lock; changes that arrive meanwhile are replayed onto the
+ * new buckets before they replace the old ones.
+ */
+public class RevenueRollup {
+    private static final long HOURS_PER_DAY = 24;
+
+    private NavigableMap<Long, Long> hourly = new TreeMap<>();
+    private NavigableMap<Long, Long> daily = new TreeMap<>();
+    private final long refreshNanos;
+    private long loadedAt;
+    private long loadStartedAt;
+    private long invalidatedAt = System.nanoTime();
+    private boolean loaded;
+    // Changes recorded while rebuilds are querying, to replay onto their results
+    private final List<Change> pending = new ArrayList<>();
+    private int rebuildsRunning;
+
+    private static final class Change {
+        final LocalDateTime when;
+        final long cents;
+        final long committedNanos;
+
+        Change(LocalDateTime when, long cents, long committedNanos) {
+            this.when = when;
+            this.cents = cents;
+            this.committedNanos = committedNanos;
+        }
+    }
+
+    // Supplies revenue in cents per hour, keyed by the start of the hour
+    @FunctionalInterface
+    public interface Loader {
+        Map<LocalDateTime, Long> loadHourlyCents() throws Exception;
+    }
+
+    public RevenueRollup(long refreshSeconds) {
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    // Records a change in revenue at the given time, committed at committedNanos; ignored until the
+    // buckets are loaded and when the last rebuild already read it
+    public synchronized void add(LocalDateTime when, long cents, long committedNanos) {
+        if (cents == 0) {
+            return;
+        }
+        if (rebuildsRunning > 0) {
+            pending.add(new Change(when, cents, committedNanos));
+        }
+        if (loaded && committedNanos - loadStartedAt >= 0) {
+            addToBuckets(hourly, daily, when, cents);
+        }
+    }
+
+    private static void addToBuckets(NavigableMap<Long, Long> hourly, NavigableMap<Long, Long> daily,
+            LocalDateTime when, long cents) {
+        long hour = hourIndex(when);
+        hourly.merge(hour, cents, Long::sum);
+        daily.merge(Math.floorDiv(hour, HOURS_PER_DAY), cents, Long::sum);
+    }
+
+    // Revenue in cents over [fromHour, toHour); both bounds must be on the hour
+    public long sumCents(LocalDateTime fromHour, LocalDateTime toHour, Loader loader) throws Exception {
+        long started = 0;
+        boolean rebuild;
+        synchronized (this) {
+            // While loaded, one rebuild at a time; other readers keep using the current buckets
+            rebuild = !loaded || (rebuildsRunning == 0 && System.nanoTime() - loadedAt >= refreshNanos);
+            if (rebuild) {
+                rebuildsRunning++;
+                // Taken before the query, so everything committed earlier is in its result
+                started = System.nanoTime();
+            }
+        }
+        if (rebuild) {
+            rebuild(loader, started);
+        }
+        synchronized (this) {
+            return sum(fromHour, toHour);
+        }
+    }
+
+    private long sum(LocalDateTime fromHour, LocalDateTime toHour) {
+        long from = hourIndex(fromHour);
+        long to = hourIndex(toHour);
+        if (from >= to) {
+            return 0;
+        }
+        long firstDay = Math.floorDiv(from + HOURS_PER_DAY - 1, HOURS_PER_DAY);
+        long lastDay = Math.floorDiv(to, HOURS_PER_DAY);
+        if (firstDay >= lastDay) {
+            return sum(hourly, from, to);
+        }
+        return sum(hourly, from, firstDay * HOURS_PER_DAY)
+                + sum(daily, firstDay, lastDay)
+                + sum(hourly, lastDay * HOURS_PER_DAY, to);
+    }
+
+    public synchronized void invalidate() {
+        loaded = false;
+        invalidatedAt = System.nanoTime();
+    }
+
+    public synchronized int getBucketCount() {
+        return hourly.size() + daily.size();
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public static LocalDateTime truncateToHour(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    // Runs the loader outside the lock, then swaps in the result unless a newer one is in place
+    private void rebuild(Loader loader, long started) throws Exception {
+        try {
+            Map<LocalDateTime, Long> loadedHours = loader.loadHourlyCents();
+            NavigableMap<Long, Long> newHourly = new TreeMap<>();
+            NavigableMap<Long, Long> newDaily = new TreeMap<>();
+            for (Map.Entry<LocalDateTime, Long> entry : loadedHours.entrySet()) {
+                if (entry.getValue() != 0) {
+                    addToBuckets(newHourly, newDaily, entry.getKey(), entry.getValue());
+                }
+            }
+            synchronized (this) {
+                // A rebuild that started earlier than the installed one, or than invalidate(), is discarded
+                if (loaded ? started - loadStartedAt > 0 : started - invalidatedAt >= 0) {
+                    for (Change change : pending) {
+                        if (change.committedNanos - started >= 0) {
+                            addToBuckets(newHourly, newDaily, change.when, change.cents);
+                        }
+                    }
+                    hourly = newHourly;
+                    daily = newDaily;
+                    loaded = true;
+                    loadStartedAt = started;
+                    loadedAt = System.nanoTime();
+                }
+            }
+        } finally {
+            synchronized (this) {
+                if (--rebuildsRunning == 0) {
+                    pending.clear();
+                }
+            }
+        }
+    }
+
+    private static long sum(NavigableMap<Long, Long> buckets, long fromInclusive, long toExclusive) {
+        long total = 0;
+        for (long cents : buckets.subMap(fromInclusive, true, toExclusive, false).values()) {
+            total += cents;
+        }
+        return total;
+    }
+
+    // Payment times carry no zone, so hours are counted on a fixed UTC scale
+    private static long hourIndex(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+}
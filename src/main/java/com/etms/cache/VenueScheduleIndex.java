@@ -0,0 +1,205 @@
+package com.etms.cache;
+
+import com.etms.model.Event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-venue index of scheduled events as time intervals.
+ * Each venue keeps its events ordered by start time together with the longest event duration,
+ * so the events overlapping a window are found with one range scan starting at
+ * {@code windowStart - longestDuration} instead of fetching the venue's whole history.
+ * Venues are loaded on first use and reloaded after {@code refreshSeconds}; writes made
+ * through this process are applied incrementally.
+ */
+public class VenueScheduleIndex {
+    private final ConcurrentMap<Integer, VenueSchedule> schedules = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Integer> venueByEvent = new ConcurrentHashMap<>();
+    private final long refreshNanos;
+
+    @FunctionalInterface
+    public interface Loader {
+        Collection<Event> load(int venueId) throws Exception;
+    }
+
+    // A period of time at a venue; end is exclusive
+    public static final class TimeSlot {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        public TimeSlot(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        public Duration getLength() {
+            return Duration.between(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return start + " - " + end;
+        }
+    }
+
+    private static final class Booking implements Comparable<Booking> {
+        final int eventId;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Booking(int eventId, LocalDateTime start, LocalDateTime end) {
+            this.eventId = eventId;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int compareTo(Booking other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : Integer.compare(eventId, other.eventId);
+        }
+    }
+
+    private static final class VenueSchedule {
+        final NavigableSet<Booking> byStart = new TreeSet<>();
+        final Map<Integer, Booking> byEvent = new HashMap<>();
+        final long loadedAt = System.nanoTime();
+        // Only grows; a stale upper bound just widens the scan slightly
+        Duration longest = Duration.ZERO;
+
+        synchronized void put(Booking booking) {
+            remove(booking.eventId);
+            byStart.add(booking);
+            byEvent.put(booking.eventId, booking);
+            Duration length = Duration.between(booking.start, booking.end);
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        synchronized void remove(int eventId) {
+            Booking previous = byEvent.remove(eventId);
+            if (previous != null) {
+                byStart.remove(previous);
+            }
+        }
+
+        // Bookings that intersect [start, end), in start order
+        synchronized List<Booking> overlapping(LocalDateTime start, LocalDateTime end) {
+            List<Booking> result = new ArrayList<>();
+            Booking from = new Booking(Integer.MIN_VALUE, start.minus(longest), null);
+            Booking to = new Booking(Integer.MIN_VALUE, end, null);
+            for (Booking booking : byStart.subSet(from, true, to, false)) {
+                if (booking.end.isAfter(start)) {
+                    result.add(booking);
+                }
+            }
+            return result;
+        }
+    }
+
+    public VenueScheduleIndex(long refreshSeconds) {
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    // IDs of events at the venue overlapping [start, end), ignoring excludeEventId
+    public List<Integer> findConflicts(int venueId, LocalDateTime start, LocalDateTime end, int excludeEventId,
+            Loader loader) throws Exception {
+        List<Integer> conflicts = new ArrayList<>();
+        for (Booking booking : schedule(venueId, loader).overlapping(start, end)) {
+            if (booking.eventId != excludeEventId) {
+                conflicts.add(booking.eventId);
+            }
+        }
+        return conflicts;
+    }
+
+    // Gaps of at least minLength between the venue's events within [from, to)
+    public List<TimeSlot> findFreeSlots(int venueId, LocalDateTime from, LocalDateTime to, Duration minLength,
+            Loader loader) throws Exception {
+        List<TimeSlot> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Booking booking : schedule(venueId, loader).overlapping(from, to)) {
+            if (Duration.between(cursor, booking.start).compareTo(minLength) >= 0) {
+                free.add(new TimeSlot(cursor, booking.start));
+            }
+            if (booking.end.isAfter(cursor)) {
+                cursor = booking.end;
+            }
+        }
+        if (cursor.isBefore(to) && Duration.between(cursor, to).compareTo(minLength) >= 0) {
+            free.add(new TimeSlot(cursor, to));
+        }
+        return free;
+    }
+
+    // Records a created or updated event; only venues already loaded are touched
+    public void put(Event event) {
+        remove(event.getEventId());
+        VenueSchedule schedule = schedules.get(event.getVenueId());
+        if (schedule != null) {
+            schedule.put(toBooking(event));
+            venueByEvent.put(event.getEventId(), event.getVenueId());
+        }
+    }
+
+    public void remove(int eventId) {
+        Integer venueId = venueByEvent.remove(eventId);
+        if (venueId != null) {
+            VenueSchedule schedule = schedules.get(venueId);
+            if (schedule != null) {
+                schedule.remove(eventId);
+            }
+        }
+    }
+
+    public void invalidate(int venueId) {
+        schedules.remove(venueId);
+    }
+
+    public static LocalDateTime startOf(Event event) {
+        return LocalDateTime.of(event.getDate(), event.getTime());
+    }
+
+    public static LocalDateTime endOf(Event event) {
+        int minutes = event.getDurationMinutes() > 0 ? event.getDurationMinutes() : Event.DEFAULT_DURATION_MINUTES;
+        return startOf(event).plusMinutes(minutes);
+    }
+
+    private VenueSchedule schedule(int venueId, Loader loader) throws Exception {
+        VenueSchedule schedule = schedules.get(venueId);
+        if (schedule != null && System.nanoTime() - schedule.loadedAt < refreshNanos) {
+            return schedule;
+        }
+        VenueSchedule loaded = new VenueSchedule();
+        for (Event event : loader.load(venueId)) {
+            loaded.put(toBooking(event));
+            venueByEvent.put(event.getEventId(), venueId);
+        }
+        schedules.put(venueId, loaded);
+        return loaded;
+    }
+
+    private static Booking toBooking(Event event) {
+        return new Booking(event.getEventId(), startOf(event), endOf(event));
+    }
+}
@@ -0,0 +1,294 @@
+package com.etms.checkin;
+
+import com.etms.dao.TicketDAO;
+import com.etms.dao.TicketScanDAO;
+import com.etms.model.Ticket;
+import com.etms.model.TicketScan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gate check-in. A scan verifies the entry token's signature with {@link TicketSigner} and
+ * checks it against two in-memory bitmaps per event, the tickets issued and the tickets
+ * already scanned, so the usual scan touches no database. Each event's bitmaps are loaded
+ * once and reloaded every refresh interval, which also merges in scans recorded by other
+ * gates. Tickets sold since the last load cost one lookup on their first scan.
+ *
+ * <p>Without a signer, e.g. when no secret is configured, no tokens are issued and every scan
+ * is rejected as invalid.
+ *
+ * <p>Accepted scans are queued and written to TicketScan in batches by a daemon thread, every
+ * flush interval or as soon as a batch fills up; failed batches are kept and retried.
+ */
+public class CheckInService {
+    private static final Logger logger = LoggerFactory.getLogger(CheckInService.class);
+
+    private final TicketSigner signer;
+    private final TicketDAO ticketDAO;
+    private final TicketScanDAO scanDAO;
+    private final int batchSize;
+    private final long flushMillis;
+    private final long refreshNanos;
+
+    private final ConcurrentMap<Integer, EventGate> gates = new ConcurrentHashMap<>();
+    private final Object loadLock = new Object();
+    private final ConcurrentLinkedQueue<TicketScan> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean syncRequested = new AtomicBoolean();
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private volatile ScheduledExecutorService syncer;
+
+    // Bitmaps of one event; guarded by the instance's monitor
+    private static final class EventGate {
+        TicketIdSet issued = new TicketIdSet();
+        // Cancelled tickets seen at the gate, so repeat scans skip the lookup
+        TicketIdSet revoked = new TicketIdSet();
+        final TicketIdSet scanned = new TicketIdSet();
+        volatile long loadedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+    }
+
+    public CheckInService(TicketSigner signer, TicketDAO ticketDAO, TicketScanDAO scanDAO,
+            int batchSize, long flushMillis, long refreshSeconds) {
+        this.signer = signer;
+        this.ticketDAO = ticketDAO;
+        this.scanDAO = scanDAO;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushMillis = Math.max(1, flushMillis);
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    public boolean isEnabled() {
+        return signer != null;
+    }
+
+    public String issueToken(Ticket ticket) {
+        if (signer == null) {
+            throw new IllegalStateException("Entry codes are disabled: no signing secret is configured");
+        }
+        return signer.sign(ticket);
+    }
+
+    // Checks a token presented at a gate of the event and, if it is good, records the entry
+    public ScanResult scan(int eventId, String gate, String token) throws Exception {
+        TicketCredential credential = signer != null ? signer.verify(token) : null;
+        if (credential == null) {
+            rejectedCount.increment();
+            return new ScanResult(ScanResult.Outcome.INVALID, null);
+        }
+        if (credential.getEventId() != eventId) {
+            rejectedCount.increment();
+            return new ScanResult(ScanResult.Outcome.WRONG_EVENT, credential);
+        }
+
+        EventGate eventGate = gateFor(eventId);
+        int ticketId = credential.getTicketId();
+        boolean issued;
+        boolean revoked;
+        synchronized (eventGate) {
+            issued = eventGate.issued.contains(ticketId);
+            revoked = eventGate.revoked.contains(ticketId);
+        }
+        if (!issued && !revoked) {
+            // Sold since the event was loaded, or cancelled; one lookup settles which
+            Ticket ticket = ticketDAO.findById(ticketId);
+            issued = ticket != null && ticket.getEventId() == eventId;
+            synchronized (eventGate) {
+                if (issued) {
+                    eventGate.issued.add(ticketId);
+                } else {
+                    eventGate.revoked.add(ticketId);
+                }
+            }
+        }
+        if (!issued) {
+            rejectedCount.increment();
+            return new ScanResult(ScanResult.Outcome.NOT_ISSUED, credential);
+        }
+
+        boolean first;
+        synchronized (eventGate) {
+            first = eventGate.scanned.add(ticketId);
+        }
+        if (!first) {
+            duplicateCount.increment();
+            return new ScanResult(ScanResult.Outcome.ALREADY_SCANNED, credential);
+        }
+        admittedCount.increment();
+        pending.add(new TicketScan(ticketId, eventId, gate, LocalDateTime.now()));
+        if (syncer == null) {
+            ensureSyncing();
+        }
+        if (pendingCount.incrementAndGet() >= batchSize) {
+            requestSync();
+        }
+        return new ScanResult(ScanResult.Outcome.ADMITTED, credential);
+    }
+
+    // Loads the event's bitmaps ahead of the doors opening
+    public void preload(int eventId) throws Exception {
+        gateFor(eventId);
+    }
+
+    // Stops a cancelled ticket from getting in; its token stays validly signed
+    public void revoke(int ticketId) {
+        for (EventGate eventGate : gates.values()) {
+            synchronized (eventGate) {
+                if (eventGate.issued.remove(ticketId)) {
+                    eventGate.revoked.add(ticketId);
+                }
+            }
+        }
+    }
+
+    public int getCheckedInCount(int eventId) throws Exception {
+        EventGate eventGate = gateFor(eventId);
+        synchronized (eventGate) {
+            return eventGate.scanned.size();
+        }
+    }
+
+    /**
+     * Writes all queued scans to the database, one batch at a time.
+     *
+     * @return the number of scans recorded
+     */
+    public int flush() throws Exception {
+        int saved = 0;
+        List<TicketScan> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            TicketScan scan;
+            while (batch.size() < batchSize && (scan = pending.poll()) != null) {
+                batch.add(scan);
+            }
+            if (batch.isEmpty()) {
+                return saved;
+            }
+            pendingCount.addAndGet(-batch.size());
+            try {
+                saved += scanDAO.saveAll(batch);
+            } catch (Exception e) {
+                pending.addAll(batch);
+                pendingCount.addAndGet(batch.size());
+                throw e;
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount.sum();
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    // Writes out queued scans and stops the sync thread
+    public void shutdown() {
+        synchronized (this) {
+            if (syncer != null) {
+                syncer.shutdownNow();
+                syncer = null;
+            }
+        }
+        syncQuietly();
+    }
+
+    // Returns the event's bitmaps, loading them on first use; one caller reloads them when they are stale
+    private EventGate gateFor(int eventId) throws Exception {
+        EventGate eventGate = gates.get(eventId);
+        if (eventGate == null) {
+            synchronized (loadLock) {
+                eventGate = gates.get(eventId);
+                if (eventGate == null) {
+                    eventGate = new EventGate();
+                    load(eventId, eventGate);
+                    gates.put(eventId, eventGate);
+                }
+            }
+            return eventGate;
+        }
+        if (System.nanoTime() - eventGate.loadedAt >= refreshNanos && eventGate.refreshing.compareAndSet(false, true)) {
+            try {
+                load(eventId, eventGate);
+            } catch (Exception e) {
+                // Keep checking people in against what is loaded
+                logger.warn("Failed to refresh check-in state for event {}: {}", eventId, e.getMessage());
+            } finally {
+                eventGate.refreshing.set(false);
+            }
+        }
+        return eventGate;
+    }
+
+    private void load(int eventId, EventGate eventGate) throws Exception {
+        TicketIdSet issued = new TicketIdSet();
+        for (Ticket ticket : ticketDAO.findByEventId(eventId)) {
+            issued.add(ticket.getTicketId());
+        }
+        List<Integer> scannedIds = scanDAO.findScannedTicketIds(eventId);
+        synchronized (eventGate) {
+            eventGate.issued = issued;
+            eventGate.revoked = new TicketIdSet();
+            for (int ticketId : scannedIds) {
+                eventGate.scanned.add(ticketId);
+            }
+            eventGate.loadedAt = System.nanoTime();
+        }
+        logger.debug("Loaded check-in state for event {}: {} tickets, {} scanned", eventId, issued.size(), scannedIds.size());
+    }
+
+    private synchronized void ensureSyncing() {
+        if (syncer == null) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "etms-checkin-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+            // Scans still queued when the application exits are written out on the way down
+            Runtime.getRuntime().addShutdownHook(new Thread(this::syncQuietly, "etms-checkin-final-sync"));
+        }
+    }
+
+    // Asks the sync thread for an early flush; requests made while one is waiting are merged
+    private synchronized void requestSync() {
+        if (syncer != null && syncRequested.compareAndSet(false, true)) {
+            syncer.execute(this::syncQuietly);
+        }
+    }
+
+    private void syncQuietly() {
+        syncRequested.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            // An exception would cancel the periodic task; the scans stay queued for the next attempt
+            logger.error("Failed to save gate scans, {} waiting", pendingCount.get(), e);
+        }
+    }
+}
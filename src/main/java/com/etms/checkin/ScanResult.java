@@ -0,0 +1,40 @@
+package com.etms.checkin;
+
+// Outcome of scanning one entry token at a gate
+public final class ScanResult {
+    public enum Outcome {
+        ADMITTED,
+        ALREADY_SCANNED,
+        // Token is malformed or its signature does not match
+        INVALID,
+        WRONG_EVENT,
+        // Signature is valid but the ticket has been cancelled
+        NOT_ISSUED
+    }
+
+    private final Outcome outcome;
+    private final TicketCredential credential;
+
+    ScanResult(Outcome outcome, TicketCredential credential) {
+        this.outcome = outcome;
+        this.credential = credential;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isAdmitted() {
+        return outcome == Outcome.ADMITTED;
+    }
+
+    // The verified ticket fields; null if the token was invalid
+    public TicketCredential getCredential() {
+        return credential;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanResult{" + outcome + (credential != null ? ", " + credential : "") + '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.etms.checkin;
+
+import com.etms.model.Ticket;
+
+/**
+ * The ticket fields carried inside a signed entry token. Once the signature is verified
+ * these can be trusted without looking the ticket up.
+ */
+public final class TicketCredential {
+    private final int ticketId;
+    private final int eventId;
+    private final int userId;
+    private final String seatNumber;
+    private final Ticket.TicketType ticketType;
+
+    TicketCredential(int ticketId, int eventId, int userId, String seatNumber, Ticket.TicketType ticketType) {
+        this.ticketId = ticketId;
+        this.eventId = eventId;
+        this.userId = userId;
+        this.seatNumber = seatNumber;
+        this.ticketType = ticketType;
+    }
+
+    public int getTicketId() {
+        return ticketId;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getSeatNumber() {
+        return seatNumber;
+    }
+
+    public Ticket.TicketType getTicketType() {
+        return ticketType;
+    }
+
+    @Override
+    public String toString() {
+        return "TicketCredential{" +
+                "ticketId=" + ticketId +
+                ", eventId=" + eventId +
+                ", seatNumber='" + seatNumber + '\'' +
+                ", ticketType=" + ticketType +
+                '}';
+    }
+}
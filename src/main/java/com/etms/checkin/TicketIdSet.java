@@ -0,0 +1,60 @@
+package com.etms.checkin;
+
+import java.util.BitSet;
+
+/**
+ * Set of ticket IDs as a bitmap, one bit per ID. Ticket IDs are global, so the bitmap starts
+ * at the lowest ID seen (rounded down to a word) rather than at zero, keeping an event's set
+ * close to one bit per ticket it sold. Not thread-safe; {@link CheckInService} guards each set.
+ */
+class TicketIdSet {
+    private int base = -1;
+    private BitSet bits = new BitSet();
+    private int size;
+
+    // Returns false if the ID was already present
+    boolean add(int ticketId) {
+        if (ticketId < 0) {
+            return false;
+        }
+        if (base < 0) {
+            base = ticketId & ~63;
+        } else if (ticketId < base) {
+            rebase(ticketId & ~63);
+        }
+        int bit = ticketId - base;
+        if (bits.get(bit)) {
+            return false;
+        }
+        bits.set(bit);
+        size++;
+        return true;
+    }
+
+    boolean contains(int ticketId) {
+        return base >= 0 && ticketId >= base && bits.get(ticketId - base);
+    }
+
+    boolean remove(int ticketId) {
+        if (!contains(ticketId)) {
+            return false;
+        }
+        bits.clear(ticketId - base);
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Moves the start down to newBase, shifting the existing words up
+    private void rebase(int newBase) {
+        long[] words = bits.toLongArray();
+        int shift = (base - newBase) >>> 6;
+        long[] shifted = new long[words.length + shift];
+        System.arraycopy(words, 0, shifted, shift, words.length);
+        bits = BitSet.valueOf(shifted);
+        base = newBase;
+    }
+}
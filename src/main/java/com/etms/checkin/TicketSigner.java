@@ -0,0 +1,108 @@
+package com.etms.checkin;
+
+import com.etms.model.Ticket;
+import com.etms.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Issues and verifies entry tokens: the ticket's ID, event, holder, seat and type, followed by
+ * an HMAC-SHA256 tag over them, both base64url encoded so the token fits a QR code. Anyone with
+ * the secret can verify a token locally, so gate scanners need no database round trip. The
+ * secret comes from {@code etms.checkin.secret}; tokens stay valid as long as it is unchanged.
+ * Without a configured secret there is no signer, and no tokens are issued or accepted.
+ */
+public final class TicketSigner {
+    private static final Logger logger = LoggerFactory.getLogger(TicketSigner.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "1";
+    // Tag length in bytes; 128 bits of HMAC-SHA256 is ample against forgery
+    private static final int TAG_BYTES = 16;
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    // Mac instances are not thread-safe and are costly to create, so each thread keeps one
+    private final ThreadLocal<Mac> macs;
+
+    public TicketSigner(byte[] secret) {
+        if (secret == null || secret.length < 16) {
+            throw new IllegalArgumentException("Ticket signing secret must be at least 16 bytes");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    // Signer using etms.checkin.secret, or null if none is configured
+    public static TicketSigner fromConfig() {
+        String secret = AppConfig.getString("etms.checkin.secret", "");
+        if (secret.isEmpty()) {
+            // A made-up secret would issue codes that other gates, and this one after a restart, reject
+            logger.warn("etms.checkin.secret is not set; entry codes are disabled");
+            return null;
+        }
+        return new TicketSigner(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String sign(Ticket ticket) {
+        String payload = VERSION + ":" + ticket.getTicketId() + ":" + ticket.getEventId() + ":"
+                + ticket.getUserId() + ":" + ticket.getSeatNumber() + ":" + ticket.getTicketType().name();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(tag(payloadBytes));
+    }
+
+    // Returns the ticket fields if the token is well formed and its tag matches, otherwise null
+    public TicketCredential verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] payloadBytes;
+        byte[] tag;
+        try {
+            payloadBytes = decoder.decode(token.substring(0, dot));
+            tag = decoder.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // Constant-time comparison, so timing does not reveal how much of a forged tag matched
+        if (!MessageDigest.isEqual(tag, tag(payloadBytes))) {
+            return null;
+        }
+        String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split(":");
+        if (fields.length != 6 || !VERSION.equals(fields[0])) {
+            return null;
+        }
+        try {
+            return new TicketCredential(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                    Integer.parseInt(fields[3]), fields[4], Ticket.TicketType.valueOf(fields[5]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] tag(byte[] payload) {
+        return Arrays.copyOf(macs.get().doFinal(payload), TAG_BYTES);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
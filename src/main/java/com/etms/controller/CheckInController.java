@@ -0,0 +1,104 @@
+package com.etms.controller;
+
+import com.etms.checkin.CheckInService;
+import com.etms.checkin.ScanResult;
+import com.etms.checkin.TicketSigner;
+import com.etms.dao.TicketDAO;
+import com.etms.daoimpl.TicketDAOImpl;
+import com.etms.daoimpl.TicketScanDAOImpl;
+import com.etms.exception.ETMSException;
+import com.etms.model.Ticket;
+import com.etms.util.AppConfig;
+
+// Handles entry tokens and gate check-in
+public class CheckInController {
+    private static final CheckInService checkIns = new CheckInService(
+            TicketSigner.fromConfig(),
+            new TicketDAOImpl(),
+            new TicketScanDAOImpl(),
+            AppConfig.getInt("etms.checkin.batchSize", 500),
+            AppConfig.getLong("etms.checkin.flushMillis", 1000),
+            AppConfig.getLong("etms.checkin.refreshSeconds", 300));
+
+    private final TicketDAO ticketDAO;
+
+    public CheckInController() {
+        this.ticketDAO = new TicketDAOImpl();
+    }
+
+    public CheckInController(TicketDAO ticketDAO) {
+        this.ticketDAO = ticketDAO;
+    }
+
+    public static CheckInService getCheckInService() {
+        return checkIns;
+    }
+
+    // False when etms.checkin.secret is not set; entry codes are then neither issued nor accepted
+    public static boolean isEntryCodeEnabled() {
+        return checkIns.isEnabled();
+    }
+
+    // Gets the signed token that lets a ticket's holder in at the gate
+    public String getEntryToken(int ticketId) throws ETMSException {
+        checkEntryCodeEnabled();
+        Ticket ticket;
+        try {
+            ticket = ticketDAO.findById(ticketId);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve ticket: " + e.getMessage(), e);
+        }
+        if (ticket == null) {
+            throw new ETMSException("Ticket not found");
+        }
+        return checkIns.issueToken(ticket);
+    }
+
+    // Gets the entry token for a ticket that is already loaded
+    public String getEntryToken(Ticket ticket) throws ETMSException {
+        checkEntryCodeEnabled();
+        return checkIns.issueToken(ticket);
+    }
+
+    // Checks in the holder of an entry token at one of the event's gates
+    public ScanResult scanTicket(int eventId, String gate, String token) throws ETMSException {
+        try {
+            return checkIns.scan(eventId, gate, token);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to check in ticket: " + e.getMessage(), e);
+        }
+    }
+
+    // Loads an event's tickets and earlier scans before the doors open
+    public void prepareEvent(int eventId) throws ETMSException {
+        try {
+            checkIns.preload(eventId);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to prepare check-in: " + e.getMessage(), e);
+        }
+    }
+
+    // Gets the number of people checked in to an event
+    public int getCheckedInCount(int eventId) throws ETMSException {
+        try {
+            return checkIns.getCheckedInCount(eventId);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve check-in count: " + e.getMessage(), e);
+        }
+    }
+
+    // Writes queued scans to the database now rather than at the next sync
+    public int syncScans() throws ETMSException {
+        try {
+            return checkIns.flush();
+        } catch (Exception e) {
+            throw new ETMSException("Failed to save scans: " + e.getMessage(), e);
+        }
+    }
+
+    private void checkEntryCodeEnabled() throws ETMSException {
+        if (!checkIns.isEnabled()) {
+            throw new ETMSException("Entry codes are disabled: etms.checkin.secret is not set");
+        }
+    }
+}
@@ -1,29 +1,99 @@
 package com.etms.controller;
 
+import com.etms.cache.EventSearchIndex;
+import com.etms.cache.VenueScheduleIndex;
 import com.etms.dao.EventDAO;
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
+import com.etms.daoimpl.CachingEventDAO;
 import com.etms.daoimpl.EventDAOImpl;
 import com.etms.exception.ETMSException;
 import com.etms.exception.ValidationException;
 import com.etms.model.Event;
+import com.etms.util.AppConfig;
+import com.etms.util.BatchLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 public class EventController {
+    private static final Logger logger = LoggerFactory.getLogger(EventController.class);
+    private static final int MAX_SEARCH_RESULTS = AppConfig.getInt("etms.search.maxResults", 200);
+    // Full rebuild interval, which picks up events written by other application instances
+    private static final long SEARCH_REBUILD_NANOS = TimeUnit.SECONDS.toNanos(
+            AppConfig.getLong("etms.search.rebuildSeconds", 300));
+
+    // Replaced whole by each rebuild; searches keep using the old index until the new one is ready
+    private static volatile EventSearchIndex searchIndex = new EventSearchIndex();
+    private static volatile long searchIndexBuiltAt;
+    private static volatile boolean searchIndexBuilt;
+    // Guards the swap, and the changes made while a rebuild runs so they can be replayed onto the new index
+    private static final Object searchIndexLock = new Object();
+    private static final List<IndexChange> pendingIndexChanges = new ArrayList<>();
+    private static boolean searchIndexRebuilding;
+    private static final ExecutorService searchIndexRebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "etms-search-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final VenueScheduleIndex scheduleIndex = new VenueScheduleIndex(
+            AppConfig.getLong("etms.schedule.refreshSeconds", 300));
+    // Past events only matter if they run into today, so venue schedules load from this far back
+    private static final int SCHEDULE_LOOKBACK_DAYS = 7;
+
     private final EventDAO eventDAO;
 
+    // An event written while the index was in use; a null event means it was deleted
+    private static final class IndexChange {
+        final int eventId;
+        final Event event;
+
+        IndexChange(int eventId, Event event) {
+            this.eventId = eventId;
+            this.event = event;
+        }
+
+        void applyTo(EventSearchIndex index) {
+            if (event != null) {
+                index.index(event);
+            } else {
+                index.remove(eventId);
+            }
+        }
+    }
+
     public EventController() {
-        this.eventDAO = new EventDAOImpl();
+        this.eventDAO = new CachingEventDAO(new EventDAOImpl());
     }
 
     public EventController(EventDAO eventDAO) {
         this.eventDAO = eventDAO;
     }
 
+    public static String getSearchIndexStats() {
+        if (!searchIndexBuilt) {
+            return "not built";
+        }
+        EventSearchIndex index = searchIndex;
+        return String.format("events=%d, terms=%d", index.size(), index.getTermCount());
+    }
+
     // Creates a new event.
     public void createEvent(Event event) throws ETMSException {
         try {
             validateEvent(event);
             eventDAO.save(event);
+            indexEvent(event.getEventId(), event);
+            scheduleIndex.put(event);
         } catch (ValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -40,11 +110,27 @@ public class EventController {
         }
     }
 
+    // Retrieves several events with one bulk lookup, keyed by event ID
+    public Map<Integer, Event> getEventsByIds(Collection<Integer> eventIds) throws ETMSException {
+        try {
+            return eventDAO.findByIds(eventIds);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve events: " + e.getMessage(), e);
+        }
+    }
+
+    // Creates a loader that batches individual event lookups; use one per screen load
+    public BatchLoader<Event> createEventLoader() {
+        return new BatchLoader<>(this::getEventsByIds);
+    }
+
     // Updates an event's information.
     public void updateEvent(Event event) throws ETMSException {
         try {
             validateEvent(event);
             eventDAO.update(event);
+            indexEvent(event.getEventId(), event);
+            scheduleIndex.put(event);
         } catch (ValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -56,6 +142,8 @@ public class EventController {
     public void deleteEvent(int eventId) throws ETMSException {
         try {
             eventDAO.delete(eventId);
+            indexEvent(eventId, null);
+            scheduleIndex.remove(eventId);
         } catch (Exception e) {
             throw new ETMSException("Failed to delete event: " + e.getMessage(), e);
         }
@@ -70,6 +158,15 @@ public class EventController {
         }
     }
 
+    // Retrieves one page of events ordered by ID.
+    public Page<Event> getEventPage(PageRequest request) throws ETMSException {
+        try {
+            return eventDAO.findPage(request);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve events: " + e.getMessage(), e);
+        }
+    }
+
     // Retrieves all events of a specific type.
     public List<Event> getEventsByType(Event.EventType eventType) throws ETMSException {
         try {
@@ -97,14 +194,102 @@ public class EventController {
         }
     }
 
-    // Searches for events by keyword.
+    // Searches event names and descriptions by word or word prefix, best matches first.
     public List<Event> searchEvents(String keyword) throws ETMSException {
         try {
-            return eventDAO.searchEvents(keyword);
+            ensureSearchIndex();
+            return searchIndex.search(keyword, MAX_SEARCH_RESULTS);
         } catch (Exception e) {
             throw new ETMSException("Failed to search events: " + e.getMessage(), e);
         }
     }
+
+    // Builds the search index ahead of the first search, e.g. at startup.
+    public void preloadSearchIndex() throws ETMSException {
+        try {
+            ensureSearchIndex();
+        } catch (Exception e) {
+            throw new ETMSException("Failed to build search index: " + e.getMessage(), e);
+        }
+    }
+
+    public static EventSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    private List<Event> loadVenueSchedule(int venueId) throws Exception {
+        return eventDAO.findByVenueSince(venueId, LocalDate.now().minusDays(SCHEDULE_LOOKBACK_DAYS));
+    }
+
+    // Builds the index on first use; once it is stale, rebuilds it in the background and swaps it in
+    private void ensureSearchIndex() throws Exception {
+        if (searchIndexBuilt && System.nanoTime() - searchIndexBuiltAt < SEARCH_REBUILD_NANOS) {
+            return;
+        }
+        synchronized (searchIndexLock) {
+            if (searchIndexRebuilding && searchIndexBuilt) {
+                return;
+            }
+            while (searchIndexRebuilding) {
+                // The first build is under way on another thread
+                searchIndexLock.wait();
+            }
+            if (searchIndexBuilt && System.nanoTime() - searchIndexBuiltAt < SEARCH_REBUILD_NANOS) {
+                return;
+            }
+            searchIndexRebuilding = true;
+        }
+        if (!searchIndexBuilt) {
+            // Nothing to search yet, so the first build runs on the caller's thread
+            rebuildSearchIndex();
+            return;
+        }
+        searchIndexRebuilder.execute(() -> {
+            try {
+                rebuildSearchIndex();
+            } catch (Exception e) {
+                // Keep searching the current index; the next stale search tries again
+                logger.warn("Failed to rebuild search index: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void rebuildSearchIndex() throws Exception {
+        try {
+            long start = System.nanoTime();
+            EventSearchIndex rebuilt = new EventSearchIndex();
+            rebuilt.rebuild(eventDAO.findAll());
+            synchronized (searchIndexLock) {
+                // Writes made during the load may be missing from it; replaying them in order is harmless either way
+                for (IndexChange change : pendingIndexChanges) {
+                    change.applyTo(rebuilt);
+                }
+                searchIndex = rebuilt;
+                searchIndexBuiltAt = System.nanoTime();
+                searchIndexBuilt = true;
+            }
+            logger.info("Indexed {} events ({} terms) in {} ms", rebuilt.size(), rebuilt.getTermCount(),
+                    TimeUnit.NANOSECONDS.toMillis(searchIndexBuiltAt - start));
+        } finally {
+            synchronized (searchIndexLock) {
+                pendingIndexChanges.clear();
+                searchIndexRebuilding = false;
+                searchIndexLock.notifyAll();
+            }
+        }
+    }
+
+    // Applies a created, updated or (when event is null) deleted event to the search index
+    private static void indexEvent(int eventId, Event event) {
+        IndexChange change = new IndexChange(eventId, event);
+        synchronized (searchIndexLock) {
+            change.applyTo(searchIndex);
+            if (searchIndexRebuilding) {
+                pendingIndexChanges.add(change);
+            }
+        }
+    }
+
     // Retrieves all upcoming events.
     public List<Event> getUpcomingEvents() throws ETMSException {
         try {
@@ -123,6 +308,17 @@ public class EventController {
         }
     }
 
+    // Lists gaps of at least minMinutes between events at a venue, from the start of fromDate to the end of toDate.
+    public List<VenueScheduleIndex.TimeSlot> getFreeSlots(int venueId, LocalDate fromDate, LocalDate toDate,
+            int minMinutes) throws ETMSException {
+        try {
+            return scheduleIndex.findFreeSlots(venueId, fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay(),
+                    Duration.ofMinutes(minMinutes), this::loadVenueSchedule);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve free slots: " + e.getMessage(), e);
+        }
+    }
+
     // Gets the number of available seats for an event.
     public int getAvailableSeats(int eventId) throws ETMSException {
         try {
@@ -147,21 +343,20 @@ public class EventController {
             throw new ValidationException("Event date cannot be in the past");
         }
 
+        if (event.getDurationMinutes() <= 0) {
+            throw new ValidationException("Event duration must be positive");
+        }
+
         // Check for overlapping events at the same venue
+        List<Integer> conflicts;
         try {
-            List<Event> existingEvents = eventDAO.findByVenue(event.getVenueId());
-            for (Event existingEvent : existingEvents) {
-                if (existingEvent.getEventId() != event.getEventId() && // Skip current event when updating
-                        existingEvent.getDate().equals(event.getDate())) {
-                    // Check if time slots overlap
-                    if (!(event.getTime().plusHours(2).isBefore(existingEvent.getTime()) ||
-                            event.getTime().isAfter(existingEvent.getTime().plusHours(2)))) {
-                        throw new ValidationException("Event time overlaps with another event at the same venue");
-                    }
-                }
-            }
+            conflicts = scheduleIndex.findConflicts(event.getVenueId(), VenueScheduleIndex.startOf(event),
+                    VenueScheduleIndex.endOf(event), event.getEventId(), this::loadVenueSchedule);
         } catch (Exception e) {
             throw new ValidationException("Error checking for overlapping events: " + e.getMessage());
         }
+        if (!conflicts.isEmpty()) {
+            throw new ValidationException("Event time overlaps with another event at the same venue");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.etms.controller;
+
+import com.etms.checkin.CheckInService;
+import com.etms.daoimpl.CachingEventDAO;
+import com.etms.daoimpl.OrganizerDAOImpl;
+import com.etms.daoimpl.UserDAOImpl;
+import com.etms.inventory.SeatHoldManager;
+import com.etms.util.AdmissionQueue;
+import com.etms.util.DatabaseUtil;
+import com.etms.util.QueryMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Collects runtime statistics for the admin metrics view
+public class MetricsController {
+
+    // Gets per-statement query metrics, slowest in total first
+    public List<QueryMetrics.StatementStats> getQueryStats() {
+        return QueryMetrics.getStatementStats();
+    }
+
+    public long getSlowQueryCount() {
+        return QueryMetrics.getSlowQueryCount();
+    }
+
+    // Clears query metrics, e.g. before measuring an on-sale
+    public void resetQueryStats() {
+        QueryMetrics.reset();
+    }
+
+    // Gets connection pool, cache and in-memory service statistics, one line per component
+    public Map<String, String> getSystemStats() {
+        Map<String, String> stats = new LinkedHashMap<>();
+        stats.put("Connection pool", DatabaseUtil.getPoolStats());
+        stats.put("Event cache", CachingEventDAO.getEventCache().toString());
+        stats.put("Event listing cache", CachingEventDAO.getListingCache().toString());
+        stats.put("Event search index", EventController.getSearchIndexStats());
+        stats.put("User email filter", UserDAOImpl.getEmailFilterStats());
+        stats.put("Organizer email filter", OrganizerDAOImpl.getEmailFilterStats());
+
+        SeatHoldManager holds = TicketController.getSeatHolds();
+        stats.put("Seat holds", String.format("active=%d, expired=%d",
+                holds.getActiveHoldCount(), holds.getExpiredCount()));
+
+        AdmissionQueue queue = TicketController.getAdmissionQueue();
+        stats.put("Booking waiting room", String.format(
+                "waiting=%d, admitted now=%d, admitRate=%.1f/s, bookings=%.1f/s, admitted=%d, abandoned=%d",
+                queue.getWaitingCount(), queue.getActiveCount(), queue.getAdmitRate(), queue.getThroughput(),
+                queue.getAdmittedCount(), queue.getAbandonedCount()));
+
+        CheckInService checkIns = CheckInController.getCheckInService();
+        stats.put("Gate check-in", String.format("admitted=%d, duplicates=%d, rejected=%d, unsaved=%d",
+                checkIns.getAdmittedCount(), checkIns.getDuplicateCount(), checkIns.getRejectedCount(),
+                checkIns.getPendingCount()));
+
+        stats.put("Slow queries", String.valueOf(QueryMetrics.getSlowQueryCount()));
+        return stats;
+    }
+}
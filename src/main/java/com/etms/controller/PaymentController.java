@@ -1,12 +1,16 @@
 package com.etms.controller;
 
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.PaymentDAO;
 import com.etms.daoimpl.PaymentDAOImpl;
 import com.etms.exception.ETMSException;
 import com.etms.model.Payment;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class PaymentController {
     private final PaymentDAO paymentDAO;
@@ -64,6 +68,15 @@ public class PaymentController {
         }
     }
 
+    // Retrieves one page of payments ordered by ID
+    public Page<Payment> getPaymentPage(PageRequest request) throws ETMSException {
+        try {
+            return paymentDAO.findPage(request);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve payments: " + e.getMessage(), e);
+        }
+    }
+
     // Gets payments by user ID
     public List<Payment> getPaymentsByUserId(int userId) throws ETMSException {
         try {
@@ -91,6 +104,16 @@ public class PaymentController {
         }
     }
 
+    // Streams payments in a date range for exports; the caller must close the stream
+    public Stream<Payment> streamPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate)
+            throws ETMSException {
+        try {
+            return paymentDAO.streamByDateRange(startDate, endDate);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to stream payments: " + e.getMessage(), e);
+        }
+    }
+
     // Updates payment status
     public boolean updatePaymentStatus(int paymentId, Payment.PaymentStatus status) throws ETMSException {
         try {
@@ -101,7 +124,7 @@ public class PaymentController {
     }
 
     // Gets total revenue in a date range
-    public double getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate) throws ETMSException {
+    public BigDecimal getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate) throws ETMSException {
         try {
             return paymentDAO.getTotalRevenue(startDate, endDate);
         } catch (Exception e) {
@@ -1,23 +1,20 @@
 package com.etms.controller;
 
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.SponsorDAO;
 import com.etms.daoimpl.SponsorDAOImpl;
 import com.etms.exception.ETMSException;
 import com.etms.model.Sponsor;
 
-import java.sql.SQLException;
 import java.util.List;
 
 // Handles sponsor-related operations.
 public class SponsorController {
     private final SponsorDAO sponsorDAO;
 
-    public SponsorController() throws ETMSException {
-        try {
-            this.sponsorDAO = new SponsorDAOImpl();
-        } catch (SQLException e) {
-            throw new ETMSException("Error initializing sponsor DAO: " + e.getMessage());
-        }
+    public SponsorController() {
+        this.sponsorDAO = new SponsorDAOImpl();
     }
 
     public SponsorController(SponsorDAO sponsorDAO) {
@@ -72,6 +69,15 @@ public class SponsorController {
         }
     }
 
+    // Get one page of sponsors ordered by ID
+    public Page<Sponsor> getSponsorPage(PageRequest request) throws ETMSException {
+        try {
+            return sponsorDAO.findPage(request);
+        } catch (Exception e) {
+            throw new ETMSException("Error retrieving sponsors: " + e.getMessage());
+        }
+    }
+
     // Get sponsors for an event
     public List<Sponsor> getSponsorsByEventId(int eventId) throws ETMSException {
         try {
@@ -1,14 +1,46 @@
 package com.etms.controller;
 
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.TicketDAO;
 import com.etms.daoimpl.TicketDAOImpl;
 import com.etms.exception.ETMSException;
+import com.etms.exception.ValidationException;
+import com.etms.exception.WaitingRoomException;
+import com.etms.inventory.SeatHold;
+import com.etms.inventory.SeatHoldManager;
+import com.etms.inventory.SeatInventory;
+import com.etms.inventory.SeatInventoryRegistry;
+import com.etms.model.Payment;
 import com.etms.model.Ticket;
+import com.etms.model.TicketDetail;
+import com.etms.util.AdmissionQueue;
+import com.etms.util.AppConfig;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 // Handles ticket-related business logic
 public class TicketController {
+    private static final int MAX_HOLD_SEATS = AppConfig.getInt("etms.holds.maxSeats", 10);
+    private static final long DEFAULT_HOLD_SECONDS = AppConfig.getLong("etms.holds.defaultSeconds", 300);
+    private static final SeatHoldManager seatHolds = new SeatHoldManager(
+            AppConfig.getLong("etms.holds.tickMillis", 100),
+            AppConfig.getLong("etms.holds.maxSeconds", 900));
+    // Off by default: the queue lives in this JVM, so it only orders users who book through one shared process
+    private static final boolean ADMISSION_ENABLED = AppConfig.getBoolean("etms.admission.enabled", false);
+    private static final AdmissionQueue admissionQueue = new AdmissionQueue(
+            AppConfig.getDouble("etms.admission.minRate", 5),
+            AppConfig.getDouble("etms.admission.maxRate", 50),
+            AppConfig.getInt("etms.admission.maxActive", 200),
+            AppConfig.getLong("etms.admission.admitSeconds", 600),
+            AppConfig.getLong("etms.admission.abandonSeconds", 60));
+
     private final TicketDAO ticketDAO;
 
     // Default constructor
@@ -21,16 +53,203 @@ public class TicketController {
         this.ticketDAO = ticketDAO;
     }
 
-    // Creates a new ticket
+    public static SeatHoldManager getSeatHolds() {
+        return seatHolds;
+    }
+
+    public static long getDefaultHoldSeconds() {
+        return DEFAULT_HOLD_SECONDS;
+    }
+
+    public static AdmissionQueue getAdmissionQueue() {
+        return admissionQueue;
+    }
+
+    public static boolean isWaitingRoomEnabled() {
+        return ADMISSION_ENABLED;
+    }
+
+    // Joins the booking waiting room, or returns the user's place if they are already in it
+    public AdmissionQueue.Status enterWaitingRoom(int userId) {
+        return admissionQueue.enter(userId);
+    }
+
+    // Gets the user's place in the waiting room; null if they are not in it. Waiting users should poll this
+    public AdmissionQueue.Status getWaitingRoomStatus(int userId) {
+        return admissionQueue.getStatus(userId);
+    }
+
+    // Leaves the waiting room, or ends the user's admission once they are done booking
+    public void leaveWaitingRoom(int userId) {
+        admissionQueue.leave(userId);
+    }
+
+    // Creates a new ticket, claiming its seat atomically
     public void createTicket(Ticket ticket) throws ETMSException {
+        checkAdmitted(ticket.getUserId());
+        checkNotHeld(ticket.getEventId(), Collections.singletonList(ticket.getSeatNumber()));
         try {
-            if (!ticketDAO.isSeatAvailable(ticket.getEventId(), ticket.getSeatNumber())) {
+            if (!ticketDAO.reserveSeat(ticket)) {
                 throw new ETMSException("Seat is not available");
             }
-            ticketDAO.save(ticket);
         } catch (Exception e) {
             throw new ETMSException("Failed to create ticket: " + e.getMessage(), e);
         }
+        admissionQueue.recordCompletion();
+    }
+
+    // Books several seats for one event together with their payment, all or nothing
+    public void bookTickets(List<Ticket> tickets, Payment payment) throws ETMSException {
+        if (tickets == null || tickets.isEmpty()) {
+            throw new ValidationException("At least one ticket is required");
+        }
+        int eventId = tickets.get(0).getEventId();
+        Set<String> seats = new HashSet<>();
+        for (Ticket ticket : tickets) {
+            if (ticket.getEventId() != eventId) {
+                throw new ValidationException("All tickets in a booking must be for the same event");
+            }
+            if (!seats.add(ticket.getSeatNumber())) {
+                throw new ValidationException("Seat " + ticket.getSeatNumber() + " is listed more than once");
+            }
+        }
+        checkAdmitted(tickets.get(0).getUserId());
+        checkNotHeld(eventId, seats);
+        try {
+            if (!ticketDAO.bookTickets(tickets, payment)) {
+                throw new ETMSException("One or more seats are not available");
+            }
+        } catch (Exception e) {
+            throw new ETMSException("Failed to book tickets: " + e.getMessage(), e);
+        }
+        admissionQueue.recordCompletion();
+    }
+
+    // Holds specific seats for a customer while they check out
+    public SeatHold holdSeats(int userId, int eventId, List<String> seatNumbers, long seconds) throws ETMSException {
+        validateHoldSize(seatNumbers.size());
+        checkAdmitted(userId);
+        if (new HashSet<>(seatNumbers).size() != seatNumbers.size()) {
+            throw new ValidationException("A seat is listed more than once");
+        }
+        SeatHold hold;
+        try {
+            hold = seatHolds.holdSeats(userId, ticketDAO.getSeatInventory(eventId), seatNumbers, seconds);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to hold seats: " + e.getMessage(), e);
+        }
+        if (hold == null) {
+            throw new ETMSException("One or more seats are not available");
+        }
+        return hold;
+    }
+
+    // Holds the next free seats of an event for a customer while they check out
+    public SeatHold holdNextSeats(int userId, int eventId, int count, long seconds) throws ETMSException {
+        validateHoldSize(count);
+        checkAdmitted(userId);
+        SeatHold hold;
+        try {
+            hold = seatHolds.holdNextSeats(userId, ticketDAO.getSeatInventory(eventId), count, seconds);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to hold seats: " + e.getMessage(), e);
+        }
+        if (hold == null) {
+            throw new ETMSException("Not enough seats available");
+        }
+        return hold;
+    }
+
+    /**
+     * Picks and holds the best available seats: count adjacent seats in the front-most row of
+     * the ticket type's seat category that has room, or else the first free seats of that
+     * category, which may be split up; {@link SeatHold#isAdjacent()} tells the two apart.
+     * Venues without rows of that category use all rows.
+     */
+    public SeatHold holdBestAvailable(int userId, int eventId, int count, Ticket.TicketType ticketType,
+            long seconds) throws ETMSException {
+        validateHoldSize(count);
+        checkAdmitted(userId);
+        SeatHold hold;
+        try {
+            SeatInventory inventory = ticketDAO.getSeatInventory(eventId);
+            int[] rows = ticketType != null ? inventory.getLayout().getRowsInCategory(ticketType.name()) : null;
+            if (rows != null && rows.length == 0) {
+                rows = null;
+            }
+            hold = seatHolds.holdBestAvailable(userId, inventory, count, rows, seconds);
+            if (hold == null) {
+                hold = seatHolds.holdNextSeats(userId, inventory, count, rows, seconds);
+            }
+        } catch (Exception e) {
+            throw new ETMSException("Failed to hold seats: " + e.getMessage(), e);
+        }
+        if (hold == null) {
+            throw new ETMSException("Not enough seats available");
+        }
+        return hold;
+    }
+
+    // Gets the number of free seats in each section of the venue
+    public Map<String, Integer> getAvailableSeatCountBySection(int eventId) throws ETMSException {
+        try {
+            return ticketDAO.getAvailableSeatCountBySection(eventId);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve available seats: " + e.getMessage(), e);
+        }
+    }
+
+    // Gives the customer more time to finish checking out
+    public SeatHold extendHold(long holdId, int userId, long seconds) throws ETMSException {
+        checkHoldOwner(holdId, userId);
+        SeatHold hold = seatHolds.extend(holdId, seconds);
+        if (hold == null) {
+            throw new ETMSException("Seat hold has expired");
+        }
+        return hold;
+    }
+
+    // Gives up held seats without booking them
+    public void releaseHold(long holdId, int userId) throws ETMSException {
+        checkHoldOwner(holdId, userId);
+        seatHolds.release(holdId);
+    }
+
+    // Books the held seats and records the payment; the hold ends whether or not the booking succeeds
+    public void convertHold(long holdId, List<Ticket> tickets, Payment payment) throws ETMSException {
+        SeatHold hold = seatHolds.get(holdId);
+        if (hold == null) {
+            throw new ETMSException("Seat hold has expired");
+        }
+        Set<String> heldSeats = new HashSet<>(hold.getSeats());
+        Set<String> ticketSeats = new HashSet<>();
+        for (Ticket ticket : tickets) {
+            if (ticket.getUserId() != hold.getUserId() || ticket.getEventId() != hold.getEventId()) {
+                throw new ValidationException("Tickets do not match the seat hold");
+            }
+            ticketSeats.add(ticket.getSeatNumber());
+        }
+        if (!ticketSeats.equals(heldSeats) || tickets.size() != heldSeats.size()) {
+            throw new ValidationException("Tickets must cover exactly the held seats");
+        }
+        hold = seatHolds.take(holdId);
+        if (hold == null) {
+            throw new ETMSException("Seat hold has expired");
+        }
+        boolean booked = false;
+        try {
+            booked = ticketDAO.bookTickets(tickets, payment);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to book tickets: " + e.getMessage(), e);
+        } finally {
+            if (!booked) {
+                seatHolds.releaseSeats(hold);
+            }
+        }
+        if (!booked) {
+            throw new ETMSException("One or more seats are not available");
+        }
+        admissionQueue.recordCompletion();
     }
 
     // Retrieves a ticket by ID
@@ -42,6 +261,58 @@ public class TicketController {
         }
     }
 
+    // Retrieves several tickets with one bulk lookup, keyed by ticket ID
+    public Map<Integer, Ticket> getTicketsByIds(Collection<Integer> ticketIds) throws ETMSException {
+        try {
+            return ticketDAO.findByIds(ticketIds);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve tickets: " + e.getMessage(), e);
+        }
+    }
+
+    private void validateHoldSize(int count) throws ValidationException {
+        if (count <= 0) {
+            throw new ValidationException("At least one seat is required");
+        }
+        if (count > MAX_HOLD_SEATS) {
+            throw new ValidationException("At most " + MAX_HOLD_SEATS + " seats can be held at once");
+        }
+    }
+
+    private void checkHoldOwner(long holdId, int userId) throws ETMSException {
+        SeatHold hold = seatHolds.get(holdId);
+        if (hold == null) {
+            throw new ETMSException("Seat hold has expired");
+        }
+        if (hold.getUserId() != userId) {
+            throw new ValidationException("Seat hold belongs to another customer");
+        }
+    }
+
+    // Seats held for someone else's checkout cannot be booked directly
+    private void checkNotHeld(int eventId, Collection<String> seatNumbers) throws ETMSException {
+        SeatInventory inventory = SeatInventoryRegistry.getIfLoaded(eventId);
+        if (inventory == null) {
+            return;
+        }
+        for (String seatNumber : seatNumbers) {
+            if (inventory.isHeld(seatNumber)) {
+                throw new ETMSException("Seat " + seatNumber + " is being held for another customer");
+            }
+        }
+    }
+
+    // Lets the booking through only once the user is admitted, joining them to the waiting room otherwise
+    private void checkAdmitted(int userId) throws WaitingRoomException {
+        if (!ADMISSION_ENABLED || admissionQueue.isAdmitted(userId)) {
+            return;
+        }
+        AdmissionQueue.Status status = admissionQueue.enter(userId);
+        if (!status.isAdmitted()) {
+            throw new WaitingRoomException(status);
+        }
+    }
+
     // Updates ticket details
     public void updateTicket(Ticket ticket) throws ETMSException {
         try {
@@ -58,6 +329,7 @@ public class TicketController {
         } catch (Exception e) {
             throw new ETMSException("Failed to delete ticket: " + e.getMessage(), e);
         }
+        revokeEntry(ticketId);
     }
 
     // Retrieves all tickets
@@ -69,6 +341,33 @@ public class TicketController {
         }
     }
 
+    // Retrieves all tickets with event and customer names in one query
+    public List<TicketDetail> getAllTicketDetails() throws ETMSException {
+        try {
+            return ticketDAO.findAllTicketDetails();
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve tickets: " + e.getMessage(), e);
+        }
+    }
+
+    // Retrieves one page of tickets ordered by ID
+    public Page<Ticket> getTicketPage(PageRequest request) throws ETMSException {
+        try {
+            return ticketDAO.findPage(request);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve tickets: " + e.getMessage(), e);
+        }
+    }
+
+    // Streams all tickets with event and customer names; the caller must close the stream
+    public Stream<TicketDetail> streamTicketDetails() throws ETMSException {
+        try {
+            return ticketDAO.streamTicketDetails();
+        } catch (Exception e) {
+            throw new ETMSException("Failed to stream tickets: " + e.getMessage(), e);
+        }
+    }
+
     // Retrieves tickets for a user
     public List<Ticket> getTicketsByUserId(int userId) throws ETMSException {
         try {
@@ -123,13 +422,41 @@ public class TicketController {
         }
     }
 
+    // Gets the number of free seats
+    public int getAvailableSeatCount(int eventId) throws ETMSException {
+        try {
+            return ticketDAO.getAvailableSeatCount(eventId);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve available seat count: " + e.getMessage(), e);
+        }
+    }
+
+    // Gets the next free seats in seat order
+    public List<String> getNextAvailableSeats(int eventId, int count) throws ETMSException {
+        try {
+            return ticketDAO.getNextAvailableSeats(eventId, count);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve available seats: " + e.getMessage(), e);
+        }
+    }
+
     // Cancels a ticket
     public boolean cancelTicket(int ticketId) throws ETMSException {
+        boolean cancelled;
         try {
-            return ticketDAO.cancelTicket(ticketId);
+            cancelled = ticketDAO.cancelTicket(ticketId);
         } catch (Exception e) {
             throw new ETMSException("Failed to cancel ticket: " + e.getMessage(), e);
         }
+        if (cancelled) {
+            revokeEntry(ticketId);
+        }
+        return cancelled;
+    }
+
+    // Every path that removes a ticket ends here: its entry token is still validly signed, so the gates must be told
+    private static void revokeEntry(int ticketId) {
+        CheckInController.getCheckInService().revoke(ticketId);
     }
 
     // Gets upcoming tickets for a user
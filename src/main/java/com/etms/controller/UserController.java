@@ -1,11 +1,16 @@
 package com.etms.controller;
 
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.UserDAO;
 import com.etms.daoimpl.UserDAOImpl;
 import com.etms.exception.ETMSException;
 import com.etms.model.User;
+import com.etms.util.BatchLoader;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 // Handles business logic for user-related operations.
 public class UserController {
@@ -51,6 +56,20 @@ public class UserController {
         }
     }
 
+    // Retrieves several users with one bulk lookup, keyed by user ID
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) throws ETMSException {
+        try {
+            return userDAO.findByIds(userIds);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve users: " + e.getMessage(), e);
+        }
+    }
+
+    // Creates a loader that batches individual user lookups; use one per screen load
+    public BatchLoader<User> createUserLoader() {
+        return new BatchLoader<>(this::getUsersByIds);
+    }
+
     // Retrieves user by email
     public User getUserByEmail(String email) throws ETMSException {
         try {
@@ -87,6 +106,15 @@ public class UserController {
         }
     }
 
+    // Retrieves one page of users ordered by ID
+    public Page<User> getUserPage(PageRequest request) throws ETMSException {
+        try {
+            return userDAO.findPage(request);
+        } catch (Exception e) {
+            throw new ETMSException("Failed to retrieve users: " + e.getMessage(), e);
+        }
+    }
+
     // Retrieves users by specified user type
     public List<User> getUsersByType(User.UserType userType) throws ETMSException {
         try {
@@ -1,12 +1,24 @@
 package com.etms.dao;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BaseDAO<T> {
     T findById(int id) throws Exception;
 
     List<T> findAll() throws Exception;
 
+    /**
+     * Returns one page of entities ordered by primary key, using keyset pagination.
+     */
+    Page<T> findPage(PageRequest request) throws Exception;
+
+    /**
+     * Streams every entity without loading the table into memory.
+     * The returned stream holds a database connection and must be closed.
+     */
+    Stream<T> streamAll() throws Exception;
+
     void save(T entity) throws Exception;
 
     void update(T entity) throws Exception;
@@ -2,15 +2,29 @@ package com.etms.dao;
 
 import com.etms.model.Event;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface EventDAO extends BaseDAO<Event> {
     List<Event> findByEventType(Event.EventType eventType) throws Exception;
 
+    /**
+     * Looks up several events at once with chunked IN queries.
+     * IDs with no matching row are absent from the returned map.
+     */
+    Map<Integer, Event> findByIds(Collection<Integer> ids) throws Exception;
+
     List<Event> findByDateRange(LocalDate startDate, LocalDate endDate) throws Exception;
 
     List<Event> findByVenue(int venueId) throws Exception;
 
+    /**
+     * Events at a venue on or after the given date, read from the primary so that
+     * scheduling checks see the latest writes.
+     */
+    List<Event> findByVenueSince(int venueId, LocalDate fromDate) throws Exception;
+
     List<Event> searchEvents(String keyword) throws Exception;
 
     List<Event> findUpcomingEvents() throws Exception;
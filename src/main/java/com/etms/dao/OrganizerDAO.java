@@ -17,6 +17,8 @@ public interface OrganizerDAO {
 
     List<Organizer> findAll() throws Exception;
 
+    Page<Organizer> findPage(PageRequest request) throws Exception;
+
     List<Organizer> findByStatus(Organizer.OrganizerStatus status) throws Exception;
 
     boolean isEmailExists(String email) throws Exception;
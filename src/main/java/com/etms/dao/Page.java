@@ -0,0 +1,38 @@
+package com.etms.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of results from a keyset-paginated query.
+ */
+public final class Page<T> {
+    private final List<T> items;
+    private final PageRequest request;
+    private final Integer lastKey;
+    private final boolean hasMore;
+
+    public Page(List<T> items, PageRequest request, Integer lastKey, boolean hasMore) {
+        this.items = Collections.unmodifiableList(items);
+        this.request = request;
+        this.lastKey = lastKey;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    // Request for the following page, or null if this is the last one
+    public PageRequest nextPage() {
+        return hasMore ? request.next(lastKey) : null;
+    }
+
+    public Integer getLastKey() {
+        return lastKey;
+    }
+}
@@ -0,0 +1,60 @@
+package com.etms.dao;
+
+/**
+ * Describes one page of a keyset-paginated query over an entity's primary key.
+ * The first page has no cursor; each following page starts after the last key seen.
+ */
+public final class PageRequest {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final Integer afterKey;
+    private final int pageSize;
+    private final boolean descending;
+
+    private PageRequest(Integer afterKey, int pageSize, boolean descending) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        this.afterKey = afterKey;
+        this.pageSize = pageSize;
+        this.descending = descending;
+    }
+
+    public static PageRequest first(int pageSize) {
+        return new PageRequest(null, pageSize, false);
+    }
+
+    public static PageRequest after(int key, int pageSize) {
+        return new PageRequest(key, pageSize, false);
+    }
+
+    public PageRequest descending() {
+        return new PageRequest(afterKey, pageSize, true);
+    }
+
+    public PageRequest next(int lastKey) {
+        return new PageRequest(lastKey, pageSize, descending);
+    }
+
+    // Cursor of the previous page's last key, or null for the first page
+    public Integer getAfterKey() {
+        return afterKey;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest{" +
+                "afterKey=" + afterKey +
+                ", pageSize=" + pageSize +
+                ", descending=" + descending +
+                '}';
+    }
+}
@@ -1,8 +1,10 @@
 package com.etms.dao;
 
 import com.etms.model.Payment;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PaymentDAO extends BaseDAO<Payment> {
     List<Payment> findByUserId(int userId) throws Exception;
@@ -11,9 +13,17 @@ public interface PaymentDAO extends BaseDAO<Payment> {
 
     List<Payment> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) throws Exception;
 
+    /**
+     * Streams payments in a date range in transaction order. The stream must be closed.
+     */
+    Stream<Payment> streamByDateRange(LocalDateTime startDate, LocalDateTime endDate) throws Exception;
+
     boolean updatePaymentStatus(int paymentId, Payment.PaymentStatus status) throws Exception;
 
-    double getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate) throws Exception;
+    /**
+     * Sum of completed payments with a transaction date in [startDate, endDate], exact to the cent.
+     */
+    BigDecimal getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate) throws Exception;
 
     List<Payment> findPendingPayments() throws Exception;
 
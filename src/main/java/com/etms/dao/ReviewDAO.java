@@ -1,7 +1,10 @@
 package com.etms.dao;
 
+import com.etms.model.RatingSummary;
 import com.etms.model.ReviewRating;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ReviewDAO {
     
@@ -15,6 +18,8 @@ public interface ReviewDAO {
 
     List<ReviewRating> findAll() throws Exception;
 
+    Page<ReviewRating> findPage(PageRequest request) throws Exception;
+
     List<ReviewRating> findByEventId(int eventId) throws Exception;
 
     List<ReviewRating> findByUserId(int userId) throws Exception;
@@ -26,4 +31,15 @@ public interface ReviewDAO {
     int getReviewCount(int eventId) throws Exception;
 
     boolean hasUserReviewed(int userId, int eventId) throws Exception;
+
+    /**
+     * Rating summaries for many events at once, keyed by event ID. Every requested
+     * event is present; events without reviews have an empty summary.
+     */
+    Map<Integer, RatingSummary> getRatingSummaries(Collection<Integer> eventIds) throws Exception;
+
+    /**
+     * Events with the highest average rating among those with at least minReviews reviews.
+     */
+    List<RatingSummary> getTopRatedEvents(int limit, int minReviews) throws Exception;
 }
\ No newline at end of file
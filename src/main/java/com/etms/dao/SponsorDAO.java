@@ -15,6 +15,8 @@ public interface SponsorDAO {
 
     List<Sponsor> findAll() throws Exception;
 
+    Page<Sponsor> findPage(PageRequest request) throws Exception;
+
     List<Sponsor> findByEventId(int eventId) throws Exception;
 
     List<Sponsor> findByStatus(Sponsor.SponsorStatus status) throws Exception;
@@ -1,21 +1,73 @@
 package com.etms.dao;
 
+import com.etms.inventory.SeatInventory;
+import com.etms.model.Payment;
 import com.etms.model.Ticket;
+import com.etms.model.TicketDetail;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface TicketDAO extends BaseDAO<Ticket> {
     List<Ticket> findByUserId(int userId) throws Exception;
 
+    /**
+     * Looks up several tickets at once with chunked IN queries.
+     * IDs with no matching row are absent from the returned map.
+     */
+    Map<Integer, Ticket> findByIds(Collection<Integer> ids) throws Exception;
+
+    /**
+     * Returns every ticket with its event and customer names, fetched with one joined query.
+     */
+    List<TicketDetail> findAllTicketDetails() throws Exception;
+
+    /**
+     * Streams every ticket with its event and customer names. The stream must be closed.
+     */
+    Stream<TicketDetail> streamTicketDetails() throws Exception;
+
     List<Ticket> findByEventId(int eventId) throws Exception;
 
     List<Ticket> findByTicketType(Ticket.TicketType ticketType) throws Exception;
 
     boolean isSeatAvailable(int eventId, String seatNumber) throws Exception;
 
+    /**
+     * Atomically claims the ticket's seat, inserts the ticket and decrements the event's
+     * available-seat counter in one transaction.
+     *
+     * @return true if the seat was claimed, false if it is already taken or the event is sold out
+     */
+    boolean reserveSeat(Ticket ticket) throws Exception;
+
+    /**
+     * Books several seats and records their payment in one transaction using a JDBC batch.
+     * Either every ticket and the payment are written, or nothing is.
+     *
+     * @return true if all seats were claimed, false if any seat is already taken or too few seats are left
+     */
+    boolean bookTickets(List<Ticket> tickets, Payment payment) throws Exception;
+
     int getBookedTicketsCount(int eventId) throws Exception;
 
     List<String> getAvailableSeats(int eventId) throws Exception;
 
+    int getAvailableSeatCount(int eventId) throws Exception;
+
+    List<String> getNextAvailableSeats(int eventId, int count) throws Exception;
+
+    /**
+     * Returns the number of free seats in each section of the event's venue, in layout order.
+     */
+    Map<String, Integer> getAvailableSeatCountBySection(int eventId) throws Exception;
+
+    /**
+     * Returns the event's in-memory seat map, loading it if needed. Seat holds are placed on it.
+     */
+    SeatInventory getSeatInventory(int eventId) throws Exception;
+
     boolean cancelTicket(int ticketId) throws Exception;
 
     List<Ticket> findUpcomingTickets(int userId) throws Exception;
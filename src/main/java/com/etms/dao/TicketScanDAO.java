@@ -0,0 +1,23 @@
+package com.etms.dao;
+
+import com.etms.model.TicketScan;
+
+import java.util.List;
+
+public interface TicketScanDAO {
+
+    /**
+     * Records gate scans in one batch. A ticket keeps only its first scan; scans of tickets
+     * that are already recorded, or that no longer exist, are skipped.
+     *
+     * @return the number of scans recorded
+     */
+    int saveAll(List<TicketScan> scans) throws Exception;
+
+    /**
+     * Returns the IDs of the event's tickets that have been scanned at a gate.
+     */
+    List<Integer> findScannedTicketIds(int eventId) throws Exception;
+
+    int countByEventId(int eventId) throws Exception;
+}
@@ -1,11 +1,19 @@
 package com.etms.dao;
 
 import com.etms.model.User;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface UserDAO extends BaseDAO<User> {
     User findByEmail(String email) throws Exception;
 
+    /**
+     * Looks up several users at once with chunked IN queries.
+     * IDs with no matching row are absent from the returned map.
+     */
+    Map<Integer, User> findByIds(Collection<Integer> ids) throws Exception;
+
     User authenticate(String email, String password) throws Exception;
 
     List<User> findByUserType(User.UserType userType) throws Exception;
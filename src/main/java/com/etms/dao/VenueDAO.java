@@ -1,7 +1,9 @@
 package com.etms.dao;
 
 import com.etms.model.Venue;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface VenueDAO {
     
@@ -13,10 +15,18 @@ public interface VenueDAO {
 
     Venue findById(int venueId) throws Exception;
 
+    /**
+     * Looks up several venues at once with chunked IN queries.
+     * IDs with no matching row are absent from the returned map.
+     */
+    Map<Integer, Venue> findByIds(Collection<Integer> ids) throws Exception;
+
     Venue findByName(String venueName) throws Exception;
 
     List<Venue> findAll() throws Exception;
 
+    Page<Venue> findPage(PageRequest request) throws Exception;
+
     List<Venue> findByLocation(String location) throws Exception;
 
     List<Venue> findByMinCapacity(int minCapacity) throws Exception;
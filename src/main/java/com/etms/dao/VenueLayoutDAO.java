@@ -0,0 +1,20 @@
+package com.etms.dao;
+
+import com.etms.inventory.VenueLayout;
+
+public interface VenueLayoutDAO {
+
+    /**
+     * Returns the venue's seating layout, or null if none is stored and seats are numbered
+     * as a single row.
+     */
+    VenueLayout findByVenueId(int venueId) throws Exception;
+
+    /**
+     * Stores the venue's layout, replacing any existing one. Seat inventories pick up the
+     * new layout when they are next reloaded.
+     */
+    void save(int venueId, VenueLayout layout) throws Exception;
+
+    boolean delete(int venueId) throws Exception;
+}
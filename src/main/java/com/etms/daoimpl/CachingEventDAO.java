@@ -0,0 +1,218 @@
+package com.etms.daoimpl;
+
+import com.etms.cache.TtlCache;
+import com.etms.dao.EventDAO;
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
+import com.etms.model.Event;
+import com.etms.util.AppConfig;
+import com.etms.util.DatabaseUtil;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache in front of an {@link EventDAO}.
+ * Lookups by ID and the upcoming-events listing are served from process-wide caches;
+ * any write through this DAO invalidates the affected entries. Listings may be read from a
+ * lagging replica, so they never fill the by-ID cache, and the upcoming listing is not cached
+ * until the replicas have had time to catch up with the last write. Cached events are
+ * copied on the way out so callers can modify them freely.
+ */
+public class CachingEventDAO implements EventDAO {
+    private static final String UPCOMING_KEY = "upcoming";
+
+    private static final TtlCache<Integer, Event> eventCache = new TtlCache<>("events",
+            AppConfig.getInt("etms.cache.event.maxSize", 1000),
+            AppConfig.getLong("etms.cache.event.ttlSeconds", 60), TimeUnit.SECONDS);
+    private static final TtlCache<String, List<Event>> listingCache = new TtlCache<>("event-listings",
+            16,
+            AppConfig.getLong("etms.cache.eventListing.ttlSeconds", 30), TimeUnit.SECONDS);
+
+    // nanoTime of the last write through this DAO, once there has been one
+    private static volatile boolean written;
+    private static volatile long lastWriteAt;
+
+    private final EventDAO delegate;
+
+    public CachingEventDAO(EventDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    public static TtlCache<Integer, Event> getEventCache() {
+        return eventCache;
+    }
+
+    public static TtlCache<String, List<Event>> getListingCache() {
+        return listingCache;
+    }
+
+    @Override
+    public Event findById(int id) throws Exception {
+        Event event = eventCache.get(id);
+        if (event == null) {
+            event = delegate.findById(id);
+            if (event == null) {
+                return null;
+            }
+            eventCache.put(id, event);
+        }
+        return copy(event);
+    }
+
+    // Cached events are served directly; only the misses go to the database, in one bulk lookup
+    @Override
+    public Map<Integer, Event> findByIds(Collection<Integer> ids) throws Exception {
+        Map<Integer, Event> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            if (id == null || found.containsKey(id)) {
+                continue;
+            }
+            Event event = eventCache.get(id);
+            if (event != null) {
+                found.put(id, copy(event));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Event event : delegate.findByIds(missing).values()) {
+                eventCache.put(event.getEventId(), copy(event));
+                found.put(event.getEventId(), event);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Event> findAll() throws Exception {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<Event> findPage(PageRequest request) throws Exception {
+        // Pages come from the primary, so their rows can warm the by-ID cache unless a write overlapped
+        long readStartedAt = System.nanoTime();
+        Page<Event> page = delegate.findPage(request);
+        if (isSettledBefore(readStartedAt)) {
+            for (Event event : page.getItems()) {
+                eventCache.put(event.getEventId(), copy(event));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Stream<Event> streamAll() throws Exception {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public void save(Event event) throws Exception {
+        delegate.save(event);
+        recordWrite();
+        listingCache.invalidateAll();
+    }
+
+    @Override
+    public void update(Event event) throws Exception {
+        delegate.update(event);
+        recordWrite();
+        eventCache.invalidate(event.getEventId());
+        listingCache.invalidateAll();
+    }
+
+    @Override
+    public void delete(int id) throws Exception {
+        delegate.delete(id);
+        recordWrite();
+        eventCache.invalidate(id);
+        listingCache.invalidateAll();
+    }
+
+    @Override
+    public List<Event> findByEventType(Event.EventType eventType) throws Exception {
+        return delegate.findByEventType(eventType);
+    }
+
+    @Override
+    public List<Event> findByDateRange(LocalDate startDate, LocalDate endDate) throws Exception {
+        return delegate.findByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public List<Event> findByVenue(int venueId) throws Exception {
+        return delegate.findByVenue(venueId);
+    }
+
+    @Override
+    public List<Event> findByVenueSince(int venueId, LocalDate fromDate) throws Exception {
+        return delegate.findByVenueSince(venueId, fromDate);
+    }
+
+    @Override
+    public List<Event> searchEvents(String keyword) throws Exception {
+        return delegate.searchEvents(keyword);
+    }
+
+    @Override
+    public List<Event> findUpcomingEvents() throws Exception {
+        List<Event> events = listingCache.get(UPCOMING_KEY);
+        if (events == null) {
+            long readStartedAt = System.nanoTime();
+            events = delegate.findUpcomingEvents();
+            if (isSettledBefore(readStartedAt)) {
+                listingCache.put(UPCOMING_KEY, events);
+                // A write that landed while the entry was being stored is not in it either
+                if (!isSettledBefore(readStartedAt)) {
+                    listingCache.invalidate(UPCOMING_KEY);
+                }
+            }
+        }
+        return copyAll(events);
+    }
+
+    @Override
+    public List<Event> findPastEvents() throws Exception {
+        return delegate.findPastEvents();
+    }
+
+    @Override
+    public int getAvailableSeats(int eventId) throws Exception {
+        return delegate.getAvailableSeats(eventId);
+    }
+
+    @Override
+    public boolean updateAvailableSeats(int eventId, int seats) throws Exception {
+        return delegate.updateAvailableSeats(eventId, seats);
+    }
+
+    private static void recordWrite() {
+        lastWriteAt = System.nanoTime();
+        written = true;
+    }
+
+    // True if a replica read started at the given time already includes the last write
+    private static boolean isSettledBefore(long readStartedAt) {
+        return !written || readStartedAt - lastWriteAt > DatabaseUtil.getReadYourWritesNanos();
+    }
+
+    private static List<Event> copyAll(List<Event> events) {
+        List<Event> copies = new ArrayList<>(events.size());
+        for (Event event : events) {
+            copies.add(copy(event));
+        }
+        return copies;
+    }
+
+    private static Event copy(Event event) {
+        return new Event(event);
+    }
+}
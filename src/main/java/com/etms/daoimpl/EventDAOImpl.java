@@ -1,6 +1,9 @@
 package com.etms.daoimpl;
 
 import com.etms.dao.EventDAO;
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
+import com.etms.inventory.AvailabilityCounters;
 import com.etms.model.Event;
 import com.etms.util.DatabaseUtil;
 import org.slf4j.Logger;
@@ -9,7 +12,10 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class EventDAOImpl implements EventDAO {
     private static final Logger logger = LoggerFactory.getLogger(EventDAOImpl.class);
@@ -28,29 +34,45 @@ public class EventDAOImpl implements EventDAO {
         return null;
     }
 
+    @Override
+    public Map<Integer, Event> findByIds(Collection<Integer> ids) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return IdBatchQuery.fetch(conn, "Event", "EventID", ids, this::mapResultSetToEvent);
+        }
+    }
+
     @Override
     public List<Event> findAll() throws Exception {
         List<Event> events = new ArrayList<>();
         String sql = "SELECT * FROM Event";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
-
-            System.out.println("Executing SQL: " + sql);
-
             while (rs.next()) {
                 events.add(mapResultSetToEvent(rs));
             }
-
-            System.out.println("Found " + events.size() + " total events");
         }
         return events;
     }
 
+    @Override
+    public Page<Event> findPage(PageRequest request) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return PageQuery.fetch(conn, "Event", "EventID", request, this::mapResultSetToEvent);
+        }
+    }
+
+    @Override
+    public Stream<Event> streamAll() throws Exception {
+        return ResultSetStreams.stream("SELECT * FROM Event", this::mapResultSetToEvent);
+    }
+
     @Override
     public void save(Event event) throws Exception {
-        String sql = "INSERT INTO Event (EventName, Description, Date, Time, TicketPrice, EventType, VenueID) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        // A new event starts with every seat of its venue available
+        String sql = "INSERT INTO Event (EventName, Description, Date, Time, TicketPrice, EventType, VenueID, " +
+                "DurationMinutes, AvailableSeats) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, (SELECT Capacity FROM Venue WHERE VenueID = ?))";
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, event.getEventName());
@@ -60,6 +82,8 @@ public class EventDAOImpl implements EventDAO {
             stmt.setBigDecimal(5, event.getTicketPrice());
             stmt.setString(6, event.getEventType().name());
             stmt.setInt(7, event.getVenueId());
+            stmt.setInt(8, event.getDurationMinutes());
+            stmt.setInt(9, event.getVenueId());
             stmt.executeUpdate();
 
             ResultSet rs = stmt.getGeneratedKeys();
@@ -71,8 +95,12 @@ public class EventDAOImpl implements EventDAO {
 
     @Override
     public void update(Event event) throws Exception {
+        // Availability is recomputed in case the event moved to a venue of a different size
         String sql = "UPDATE Event SET EventName = ?, Description = ?, Date = ?, Time = ?, " +
-                "TicketPrice = ?, EventType = ?, VenueID = ? WHERE EventID = ?";
+                "TicketPrice = ?, EventType = ?, VenueID = ?, DurationMinutes = ?, " +
+                "AvailableSeats = (SELECT Capacity FROM Venue WHERE VenueID = ?) " +
+                "- (SELECT COUNT(*) FROM Ticket WHERE EventID = ?) " +
+                "WHERE EventID = ?";
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, event.getEventName());
@@ -82,9 +110,13 @@ public class EventDAOImpl implements EventDAO {
             stmt.setBigDecimal(5, event.getTicketPrice());
             stmt.setString(6, event.getEventType().name());
             stmt.setInt(7, event.getVenueId());
-            stmt.setInt(8, event.getEventId());
+            stmt.setInt(8, event.getDurationMinutes());
+            stmt.setInt(9, event.getVenueId());
+            stmt.setInt(10, event.getEventId());
+            stmt.setInt(11, event.getEventId());
             stmt.executeUpdate();
         }
+        AvailabilityCounters.invalidate(event.getEventId());
     }
 
     @Override
@@ -95,13 +127,14 @@ public class EventDAOImpl implements EventDAO {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         }
+        AvailabilityCounters.invalidate(id);
     }
 
     @Override
     public List<Event> findByEventType(Event.EventType eventType) throws Exception {
         List<Event> events = new ArrayList<>();
         String sql = "SELECT * FROM Event WHERE EventType = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, eventType.name());
             ResultSet rs = stmt.executeQuery();
@@ -116,7 +149,7 @@ public class EventDAOImpl implements EventDAO {
     public List<Event> findByDateRange(LocalDate startDate, LocalDate endDate) throws Exception {
         List<Event> events = new ArrayList<>();
         String sql = "SELECT * FROM Event WHERE Date BETWEEN ? AND ?";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setDate(1, Date.valueOf(startDate));
             stmt.setDate(2, Date.valueOf(endDate));
@@ -132,9 +165,25 @@ public class EventDAOImpl implements EventDAO {
     public List<Event> findByVenue(int venueId) throws Exception {
         List<Event> events = new ArrayList<>();
         String sql = "SELECT * FROM Event WHERE VenueID = ?";
+        try (Connection conn = DatabaseUtil.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, venueId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                events.add(mapResultSetToEvent(rs));
+            }
+        }
+        return events;
+    }
+
+    @Override
+    public List<Event> findByVenueSince(int venueId, LocalDate fromDate) throws Exception {
+        List<Event> events = new ArrayList<>();
+        String sql = "SELECT * FROM Event WHERE VenueID = ? AND Date >= ?";
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, venueId);
+            stmt.setDate(2, Date.valueOf(fromDate));
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 events.add(mapResultSetToEvent(rs));
@@ -147,7 +196,7 @@ public class EventDAOImpl implements EventDAO {
     public List<Event> searchEvents(String keyword) throws Exception {
         List<Event> events = new ArrayList<>();
         String sql = "SELECT * FROM Event WHERE EventName LIKE ? OR Description LIKE ?";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             String searchPattern = "%" + keyword + "%";
             stmt.setString(1, searchPattern);
@@ -164,7 +213,7 @@ public class EventDAOImpl implements EventDAO {
     public List<Event> findUpcomingEvents() throws Exception {
         List<Event> events = new ArrayList<>();
         String sql = "SELECT * FROM Event WHERE Date >= CURRENT_DATE ORDER BY Date, Time";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
@@ -178,7 +227,7 @@ public class EventDAOImpl implements EventDAO {
     public List<Event> findPastEvents() throws Exception {
         List<Event> events = new ArrayList<>();
         String sql = "SELECT * FROM Event WHERE Date < CURRENT_DATE ORDER BY Date DESC, Time DESC";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
@@ -190,14 +239,59 @@ public class EventDAOImpl implements EventDAO {
 
     @Override
     public int getAvailableSeats(int eventId) throws Exception {
-        String sql = "SELECT v.Capacity - COUNT(t.TicketID) as AvailableSeats " +
+        return AvailabilityCounters.get(eventId, this::loadAvailableSeats);
+    }
+
+    @Override
+    public boolean updateAvailableSeats(int eventId, int seats) throws Exception {
+        String sql = "UPDATE Event SET AvailableSeats = ? WHERE EventID = ?";
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, seats);
+            stmt.setInt(2, eventId);
+            return stmt.executeUpdate() > 0;
+        } finally {
+            AvailabilityCounters.invalidate(eventId);
+        }
+    }
+
+    // Adjusts the AvailableSeats counter on the caller's connection so it commits with the ticket rows.
+    // A decrement only succeeds while enough seats are left; events whose counter was never
+    // initialised (NULL) are not limited. Returns false if the event is missing or too full.
+    static boolean adjustAvailableSeats(Connection conn, int eventId, int delta) throws SQLException {
+        String sql = "UPDATE Event SET AvailableSeats = AvailableSeats + ? " +
+                "WHERE EventID = ? AND (AvailableSeats IS NULL OR AvailableSeats + ? >= 0)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, delta);
+            stmt.setInt(2, eventId);
+            stmt.setInt(3, delta);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private int loadAvailableSeats(int eventId) throws SQLException {
+        String sql = "SELECT AvailableSeats FROM Event WHERE EventID = ?";
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, eventId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return 0;
+            }
+            int available = rs.getInt(1);
+            if (!rs.wasNull()) {
+                return available;
+            }
+        }
+        // Counter not initialised yet (see db/schema-updates.sql); count the sold tickets instead
+        String countSql = "SELECT v.Capacity - COUNT(t.TicketID) as AvailableSeats " +
                 "FROM Event e " +
                 "JOIN Venue v ON e.VenueID = v.VenueID " +
                 "LEFT JOIN Ticket t ON e.EventID = t.EventID " +
                 "WHERE e.EventID = ? " +
                 "GROUP BY v.Capacity";
         try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+                PreparedStatement stmt = conn.prepareStatement(countSql)) {
             stmt.setInt(1, eventId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -207,17 +301,6 @@ public class EventDAOImpl implements EventDAO {
         return 0;
     }
 
-    @Override
-    public boolean updateAvailableSeats(int eventId, int seats) throws Exception {
-        String sql = "UPDATE Event SET AvailableSeats = ? WHERE EventID = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, seats);
-            stmt.setInt(2, eventId);
-            return stmt.executeUpdate() > 0;
-        }
-    }
-
     private Event mapResultSetToEvent(ResultSet rs) throws SQLException {
         Event event = new Event();
         event.setEventId(rs.getInt("EventID"));
@@ -228,6 +311,7 @@ public class EventDAOImpl implements EventDAO {
         event.setTicketPrice(rs.getBigDecimal("TicketPrice"));
         event.setEventType(Event.EventType.valueOf(rs.getString("EventType")));
         event.setVenueId(rs.getInt("VenueID"));
+        event.setDurationMinutes(rs.getInt("DurationMinutes"));
         return event;
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.etms.daoimpl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches rows by primary key with "WHERE key IN (?, ?, ...)" queries. IDs are de-duplicated
+ * and sent in chunks of {@link #CHUNK_SIZE}, which keeps statements well inside driver and
+ * server parameter limits and lets the server reuse a small number of prepared statements.
+ */
+final class IdBatchQuery {
+    static final int CHUNK_SIZE = 500;
+
+    private IdBatchQuery() {
+    }
+
+    // Returns the rows found, keyed by ID; IDs with no row are absent from the map
+    static <T> Map<Integer, T> fetch(Connection conn, String table, String keyColumn, Collection<Integer> ids,
+            RowMapper<T> mapper) throws SQLException {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+        Map<Integer, T> found = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size()));
+            StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table)
+                    .append(" WHERE ").append(keyColumn).append(" IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        found.put(rs.getInt(keyColumn), mapper.map(rs));
+                    }
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -1,6 +1,9 @@
 package com.etms.daoimpl;
 
+import com.etms.cache.EmailFilter;
 import com.etms.dao.OrganizerDAO;
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.model.Organizer;
 import com.etms.util.DatabaseUtil;
 
@@ -11,12 +14,54 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Implementation of the OrganizerDAO interface.
  * Handles all database operations for the Organizer entity.
  */
 public class OrganizerDAOImpl implements OrganizerDAO {
+    private static final EmailFilter emailFilter = new EmailFilter("Organizer");
+    private static final EmailFilter.Source EMAIL_SOURCE = new EmailFilter.Source() {
+        @Override
+        public long count() throws Exception {
+            try (Connection conn = DatabaseUtil.getConnection();
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM organizers")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+
+        @Override
+        public void forEach(Consumer<String> sink) throws Exception {
+            try (Connection conn = DatabaseUtil.getConnection();
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT email FROM organizers")) {
+                while (rs.next()) {
+                    sink.accept(rs.getString(1));
+                }
+            }
+        }
+    };
+
+    /**
+     * Loads the email Bloom filter ahead of the first registration check.
+     */
+    public static void preloadEmailFilter() throws Exception {
+        emailFilter.load(EMAIL_SOURCE);
+    }
+
+    public static String getEmailFilterStats() {
+        return emailFilter.getStats();
+    }
+
+    // Reports a unique-key violation on email as a duplicate registration
+    private static SQLException emailConflict(SQLException e) {
+        if (DatabaseUtil.isDuplicateKey(e)) {
+            return new SQLException("Email already registered", e.getSQLState(), e);
+        }
+        return e;
+    }
 
     private String hashPassword(String password) throws NoSuchAlgorithmException {
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
@@ -48,7 +93,10 @@ public class OrganizerDAOImpl implements OrganizerDAO {
                     throw new SQLException("Creating organizer failed, no ID obtained.");
                 }
             }
+        } catch (SQLException e) {
+            throw emailConflict(e);
         }
+        emailFilter.add(organizer.getEmail());
     }
 
     @Override
@@ -68,7 +116,10 @@ public class OrganizerDAOImpl implements OrganizerDAO {
             if (affectedRows == 0) {
                 throw new SQLException("Updating organizer failed, no rows affected.");
             }
+        } catch (SQLException e) {
+            throw emailConflict(e);
         }
+        emailFilter.add(organizer.getEmail());
     }
 
     @Override
@@ -135,6 +186,13 @@ public class OrganizerDAOImpl implements OrganizerDAO {
         }
     }
 
+    @Override
+    public Page<Organizer> findPage(PageRequest request) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return PageQuery.fetch(conn, "organizers", "organizer_id", request, this::mapResultSetToOrganizer);
+        }
+    }
+
     @Override
     public List<Organizer> findByStatus(Organizer.OrganizerStatus status) throws Exception {
         String sql = "SELECT * FROM organizers WHERE status = ?";
@@ -155,6 +213,11 @@ public class OrganizerDAOImpl implements OrganizerDAO {
 
     @Override
     public boolean isEmailExists(String email) throws Exception {
+        // A Bloom filter miss skips the query. Registrations made by other instances since the last
+        // rebuild may be missing from it; the unique key on email rejects those in save()
+        if (email == null || !emailFilter.mightContain(email, EMAIL_SOURCE)) {
+            return false;
+        }
         String sql = "SELECT COUNT(*) FROM organizers WHERE email = ?";
 
         try (Connection conn = DatabaseUtil.getConnection();
@@ -0,0 +1,54 @@
+package com.etms.daoimpl;
+
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs keyset-paginated queries: "WHERE key > ? ORDER BY key LIMIT n" uses the primary key
+ * index directly, so every page costs the same regardless of how deep the caller has scrolled.
+ */
+final class PageQuery {
+
+    private PageQuery() {
+    }
+
+    static <T> Page<T> fetch(Connection conn, String table, String keyColumn, PageRequest request,
+            RowMapper<T> mapper) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table);
+        if (request.getAfterKey() != null) {
+            sql.append(" WHERE ").append(keyColumn).append(request.isDescending() ? " < ?" : " > ?");
+        }
+        sql.append(" ORDER BY ").append(keyColumn).append(request.isDescending() ? " DESC" : " ASC");
+        sql.append(" LIMIT ?");
+
+        List<T> items = new ArrayList<>(request.getPageSize());
+        Integer lastKey = null;
+        boolean hasMore = false;
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            if (request.getAfterKey() != null) {
+                stmt.setInt(index++, request.getAfterKey());
+            }
+            // One extra row tells us whether another page exists
+            stmt.setInt(index, request.getPageSize() + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (items.size() == request.getPageSize()) {
+                        hasMore = true;
+                        break;
+                    }
+                    items.add(mapper.map(rs));
+                    lastKey = rs.getInt(keyColumn);
+                }
+            }
+        }
+        return new Page<>(items, request, lastKey, hasMore);
+    }
+}
@@ -1,18 +1,33 @@
 package com.etms.daoimpl;
 
+import com.etms.cache.RevenueRollup;
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.PaymentDAO;
 import com.etms.model.Payment;
+import com.etms.util.AppConfig;
 import com.etms.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class PaymentDAOImpl implements PaymentDAO {
     private static final Logger logger = LoggerFactory.getLogger(PaymentDAOImpl.class);
+    // Completed-payment revenue by hour and day, shared by every DAO instance
+    private static final RevenueRollup revenueRollup = new RevenueRollup(
+            AppConfig.getLong("etms.revenue.refreshSeconds", 300));
+
+    public static RevenueRollup getRevenueRollup() {
+        return revenueRollup;
+    }
 
     @Override
     public Payment findById(int id) throws Exception {
@@ -42,11 +57,31 @@ public class PaymentDAOImpl implements PaymentDAO {
         return payments;
     }
 
+    @Override
+    public Page<Payment> findPage(PageRequest request) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return PageQuery.fetch(conn, "Payment", "PaymentID", request, this::mapResultSetToPayment);
+        }
+    }
+
+    @Override
+    public Stream<Payment> streamAll() throws Exception {
+        return ResultSetStreams.stream("SELECT * FROM Payment", this::mapResultSetToPayment);
+    }
+
     @Override
     public void save(Payment payment) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            insertPayment(conn, payment);
+        }
+        recordRevenueChange(null, payment, System.nanoTime());
+        DatabaseUtil.recordWrite(payment.getUserId());
+    }
+
+    // Inserts a payment on the caller's connection so it can share a transaction with other writes
+    static void insertPayment(Connection conn, Payment payment) throws SQLException {
         String sql = "INSERT INTO Payment (UserID, Amount, Status, TransactionDate) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, payment.getUserId());
             stmt.setBigDecimal(2, payment.getAmount());
             stmt.setString(3, payment.getStatus().name().toUpperCase());
@@ -63,32 +98,61 @@ public class PaymentDAOImpl implements PaymentDAO {
     @Override
     public void update(Payment payment) throws Exception {
         String sql = "UPDATE Payment SET UserID = ?, Amount = ?, Status = ?, TransactionDate = ? WHERE PaymentID = ?";
+        Payment previous;
+        long committedAt;
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, payment.getUserId());
-            stmt.setBigDecimal(2, payment.getAmount());
-            stmt.setString(3, payment.getStatus().name());
-            stmt.setTimestamp(4, Timestamp.valueOf(payment.getTransactionDate()));
-            stmt.setInt(5, payment.getPaymentId());
-            stmt.executeUpdate();
+            conn.setAutoCommit(false);
+            try {
+                previous = lockPayment(conn, payment.getPaymentId());
+                stmt.setInt(1, payment.getUserId());
+                stmt.setBigDecimal(2, payment.getAmount());
+                stmt.setString(3, payment.getStatus().name());
+                stmt.setTimestamp(4, Timestamp.valueOf(payment.getTransactionDate()));
+                stmt.setInt(5, payment.getPaymentId());
+                stmt.executeUpdate();
+                conn.commit();
+                committedAt = System.nanoTime();
+            } catch (SQLException | RuntimeException | Error e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
+        recordRevenueChange(previous, payment, committedAt);
+        DatabaseUtil.recordWrite(payment.getUserId());
     }
 
     @Override
     public void delete(int id) throws Exception {
         String sql = "DELETE FROM Payment WHERE PaymentID = ?";
+        Payment previous;
+        long committedAt;
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+            conn.setAutoCommit(false);
+            try {
+                previous = lockPayment(conn, id);
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+                conn.commit();
+                committedAt = System.nanoTime();
+            } catch (SQLException | RuntimeException | Error e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
+        recordRevenueChange(previous, null, committedAt);
     }
 
     @Override
     public List<Payment> findByUserId(int userId) throws Exception {
         List<Payment> payments = new ArrayList<>();
         String sql = "SELECT * FROM Payment WHERE UserID = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection(userId);
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
@@ -118,7 +182,7 @@ public class PaymentDAOImpl implements PaymentDAO {
     public List<Payment> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) throws Exception {
         List<Payment> payments = new ArrayList<>();
         String sql = "SELECT * FROM Payment WHERE TransactionDate BETWEEN ? AND ?";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setTimestamp(1, Timestamp.valueOf(startDate));
             stmt.setTimestamp(2, Timestamp.valueOf(endDate));
@@ -130,31 +194,102 @@ public class PaymentDAOImpl implements PaymentDAO {
         return payments;
     }
 
+    @Override
+    public Stream<Payment> streamByDateRange(LocalDateTime startDate, LocalDateTime endDate) throws Exception {
+        String sql = "SELECT * FROM Payment WHERE TransactionDate BETWEEN ? AND ? ORDER BY TransactionDate";
+        return ResultSetStreams.stream(sql, stmt -> {
+            stmt.setTimestamp(1, Timestamp.valueOf(startDate));
+            stmt.setTimestamp(2, Timestamp.valueOf(endDate));
+        }, this::mapResultSetToPayment);
+    }
+
     @Override
     public boolean updatePaymentStatus(int paymentId, Payment.PaymentStatus status) throws Exception {
         String sql = "UPDATE Payment SET Status = ? WHERE PaymentID = ?";
+        Payment previous;
+        long committedAt;
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, status.name());
-            stmt.setInt(2, paymentId);
-            return stmt.executeUpdate() > 0;
+            conn.setAutoCommit(false);
+            try {
+                previous = lockPayment(conn, paymentId);
+                stmt.setString(1, status.name());
+                stmt.setInt(2, paymentId);
+                if (previous == null || stmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                conn.commit();
+                committedAt = System.nanoTime();
+            } catch (SQLException | RuntimeException | Error e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
+        Payment updated = new Payment();
+        updated.setAmount(previous.getAmount());
+        updated.setTransactionDate(previous.getTransactionDate());
+        updated.setStatus(status);
+        recordRevenueChange(previous, updated, committedAt);
+        return true;
     }
 
     @Override
-    public double getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate) throws Exception {
+    public BigDecimal getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate) throws Exception {
+        if (endDate.isBefore(startDate)) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        // Whole hours come from the rollup; only the partial hours at either end are summed in SQL
+        LocalDateTime firstFullHour = RevenueRollup.truncateToHour(startDate);
+        if (firstFullHour.isBefore(startDate)) {
+            firstFullHour = firstFullHour.plusHours(1);
+        }
+        LocalDateTime lastFullHourEnd = RevenueRollup.truncateToHour(endDate);
+        if (!firstFullHour.isBefore(lastFullHourEnd)) {
+            return RevenueRollup.fromCents(sumCompletedCents(startDate, endDate, true));
+        }
+        long cents = revenueRollup.sumCents(firstFullHour, lastFullHourEnd, this::loadHourlyRevenue);
+        if (startDate.isBefore(firstFullHour)) {
+            cents += sumCompletedCents(startDate, firstFullHour, false);
+        }
+        cents += sumCompletedCents(lastFullHourEnd, endDate, true);
+        return RevenueRollup.fromCents(cents);
+    }
+
+    // Sums completed payments from start (inclusive) to end (inclusive or exclusive)
+    private long sumCompletedCents(LocalDateTime start, LocalDateTime end, boolean endInclusive) throws SQLException {
         String sql = "SELECT SUM(Amount) as TotalRevenue FROM Payment " +
-                "WHERE Status = 'COMPLETED' AND TransactionDate BETWEEN ? AND ?";
-        try (Connection conn = DatabaseUtil.getConnection();
+                "WHERE Status = 'COMPLETED' AND TransactionDate >= ? AND TransactionDate " +
+                (endInclusive ? "<=" : "<") + " ?";
+        try (Connection conn = DatabaseUtil.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setTimestamp(1, Timestamp.valueOf(startDate));
-            stmt.setTimestamp(2, Timestamp.valueOf(endDate));
+            stmt.setTimestamp(1, Timestamp.valueOf(start));
+            stmt.setTimestamp(2, Timestamp.valueOf(end));
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return rs.getDouble("TotalRevenue");
+                return RevenueRollup.toCents(rs.getBigDecimal("TotalRevenue"));
+            }
+        }
+        return 0;
+    }
+
+    // Completed revenue per hour, used to (re)build the rollup; reads the primary so fresh writes are counted
+    private Map<LocalDateTime, Long> loadHourlyRevenue() throws SQLException {
+        String sql = "SELECT CAST(TransactionDate AS DATE) AS Day, HOUR(TransactionDate) AS Hour, " +
+                "SUM(Amount) AS Revenue FROM Payment WHERE Status = 'COMPLETED' " +
+                "GROUP BY CAST(TransactionDate AS DATE), HOUR(TransactionDate)";
+        Map<LocalDateTime, Long> hours = new HashMap<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                LocalDateTime hour = rs.getDate("Day").toLocalDate().atTime(rs.getInt("Hour"), 0);
+                hours.merge(hour, RevenueRollup.toCents(rs.getBigDecimal("Revenue")), Long::sum);
             }
         }
-        return 0.0;
+        return hours;
     }
 
     @Override
@@ -172,6 +307,32 @@ public class PaymentDAOImpl implements PaymentDAO {
         return findByStatus(Payment.PaymentStatus.REFUNDED);
     }
 
+    // Reads a payment and locks its row until the caller's transaction ends; null if it does not exist
+    private Payment lockPayment(Connection conn, int paymentId) throws SQLException {
+        String sql = "SELECT * FROM Payment WHERE PaymentID = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, paymentId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapResultSetToPayment(rs) : null;
+        }
+    }
+
+    // Applies a payment change committed at committedAt (System.nanoTime) to the revenue rollup;
+    // before or after is null for inserts and deletes
+    static void recordRevenueChange(Payment before, Payment after, long committedAt) {
+        if (isCompleted(before)) {
+            revenueRollup.add(before.getTransactionDate(), -RevenueRollup.toCents(before.getAmount()), committedAt);
+        }
+        if (isCompleted(after)) {
+            revenueRollup.add(after.getTransactionDate(), RevenueRollup.toCents(after.getAmount()), committedAt);
+        }
+    }
+
+    private static boolean isCompleted(Payment payment) {
+        return payment != null && payment.getStatus() == Payment.PaymentStatus.COMPLETED
+                && payment.getTransactionDate() != null;
+    }
+
     private Payment mapResultSetToPayment(ResultSet rs) throws SQLException {
         Payment payment = new Payment();
         payment.setPaymentId(rs.getInt("PaymentID"));
@@ -0,0 +1,98 @@
+package com.etms.daoimpl;
+
+import com.etms.util.AppConfig;
+import com.etms.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Exposes a query result as a lazily-read {@link Stream}.
+ * The query runs on its own connection with a forward-only, read-only cursor and
+ * MySQL row streaming, so only the current row is held in memory (other drivers fetch
+ * {@code etms.db.streamFetchSize} rows at a time). The connection is
+ * returned to the pool when the stream is closed; callers must use try-with-resources.
+ */
+final class ResultSetStreams {
+    private static final Logger logger = LoggerFactory.getLogger(ResultSetStreams.class);
+    private static final int FETCH_SIZE = AppConfig.getInt("etms.db.streamFetchSize", 500);
+
+    @FunctionalInterface
+    interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private ResultSetStreams() {
+    }
+
+    static <T> Stream<T> stream(String sql, RowMapper<T> mapper) throws SQLException {
+        return stream(sql, stmt -> {
+        }, mapper);
+    }
+
+    static <T> Stream<T> stream(String sql, StatementBinder binder, RowMapper<T> mapper) throws SQLException {
+        Connection conn = DatabaseUtil.getConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize(conn));
+            binder.bind(stmt);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            close(rs, stmt, conn);
+            throw e;
+        }
+
+        ResultSet resultSet = rs;
+        PreparedStatement statement = stmt;
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(resultSet));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to read streamed row: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> close(resultSet, statement, conn));
+    }
+
+    // Integer.MIN_VALUE makes MySQL stream rows instead of buffering the whole result; other
+    // drivers reject it and take a positive fetch size as the number of rows per round trip
+    private static int fetchSize(Connection conn) throws SQLException {
+        String url = conn.getMetaData().getURL();
+        return url != null && url.startsWith("jdbc:mysql:") ? Integer.MIN_VALUE : FETCH_SIZE;
+    }
+
+    private static void close(ResultSet rs, PreparedStatement stmt, Connection conn) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to close streamed result", e);
+        } finally {
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+}
@@ -1,29 +1,35 @@
 package com.etms.daoimpl;
 
+import com.etms.cache.RatingAggregates;
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.ReviewDAO;
+import com.etms.model.RatingSummary;
 import com.etms.model.ReviewRating;
+import com.etms.util.AppConfig;
 import com.etms.util.DatabaseUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of the ReviewDAO interface.
  * Handles all database operations for the ReviewRating entity.
  */
 public class ReviewDAOImpl implements ReviewDAO {
-    private final Connection connection;
-
-    public ReviewDAOImpl() throws SQLException {
-        this.connection = DatabaseUtil.getConnection();
-    }
-
+    // Per-event rating totals, shared by every DAO instance and kept current by this DAO's writes
+    private static final RatingAggregates ratingAggregates = new RatingAggregates(
+            AppConfig.getLong("etms.reviews.refreshSeconds", 300));
     @Override
     public void save(ReviewRating review) throws Exception {
         String sql = "INSERT INTO reviews (user_id, event_id, rating, comment, review_date) VALUES (?, ?, ?, ?, ?)";
+        long committedAt;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, review.getUserId());
             stmt.setInt(2, review.getEventId());
             stmt.setInt(3, review.getRating());
@@ -31,6 +37,8 @@ public class ReviewDAOImpl implements ReviewDAO {
             stmt.setTimestamp(5, Timestamp.valueOf(review.getReviewDate()));
 
             int affectedRows = stmt.executeUpdate();
+            // Auto-commit: the insert is committed once executeUpdate returns
+            committedAt = System.nanoTime();
             if (affectedRows == 0) {
                 throw new SQLException("Creating review failed, no rows affected.");
             }
@@ -43,46 +51,84 @@ public class ReviewDAOImpl implements ReviewDAO {
                 }
             }
         }
+        ratingAggregates.add(review.getEventId(), review.getRating(), committedAt);
     }
 
     @Override
     public void update(ReviewRating review) throws Exception {
         String sql = "UPDATE reviews SET user_id = ?, event_id = ?, rating = ?, comment = ?, review_date = ? WHERE review_id = ?";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, review.getUserId());
-            stmt.setInt(2, review.getEventId());
-            stmt.setInt(3, review.getRating());
-            stmt.setString(4, review.getComment());
-            stmt.setTimestamp(5, Timestamp.valueOf(review.getReviewDate()));
-            stmt.setInt(6, review.getReviewId());
-
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Updating review failed, no rows affected.");
+        ReviewRating previous;
+        long committedAt;
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                // Locked so a concurrent write cannot change the rating between this read and the update
+                previous = lockReview(conn, review.getReviewId());
+                stmt.setInt(1, review.getUserId());
+                stmt.setInt(2, review.getEventId());
+                stmt.setInt(3, review.getRating());
+                stmt.setString(4, review.getComment());
+                stmt.setTimestamp(5, Timestamp.valueOf(review.getReviewDate()));
+                stmt.setInt(6, review.getReviewId());
+
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Updating review failed, no rows affected.");
+                }
+                conn.commit();
+                committedAt = System.nanoTime();
+            } catch (SQLException | RuntimeException | Error e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
+        if (previous != null) {
+            ratingAggregates.remove(previous.getEventId(), previous.getRating(), committedAt);
+        }
+        ratingAggregates.add(review.getEventId(), review.getRating(), committedAt);
     }
 
     @Override
     public void delete(int reviewId) throws Exception {
         String sql = "DELETE FROM reviews WHERE review_id = ?";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, reviewId);
-
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Deleting review failed, no rows affected.");
+        ReviewRating previous;
+        long committedAt;
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                previous = lockReview(conn, reviewId);
+                stmt.setInt(1, reviewId);
+
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Deleting review failed, no rows affected.");
+                }
+                conn.commit();
+                committedAt = System.nanoTime();
+            } catch (SQLException | RuntimeException | Error e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
+        if (previous != null) {
+            ratingAggregates.remove(previous.getEventId(), previous.getRating(), committedAt);
+        }
     }
 
     @Override
     public ReviewRating findById(int reviewId) throws Exception {
         String sql = "SELECT * FROM reviews WHERE review_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, reviewId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -99,7 +145,8 @@ public class ReviewDAOImpl implements ReviewDAO {
         String sql = "SELECT * FROM reviews";
         List<ReviewRating> reviews = new ArrayList<>();
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = DatabaseUtil.getReadConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -109,12 +156,20 @@ public class ReviewDAOImpl implements ReviewDAO {
         }
     }
 
+    @Override
+    public Page<ReviewRating> findPage(PageRequest request) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return PageQuery.fetch(conn, "reviews", "review_id", request, this::mapResultSetToReview);
+        }
+    }
+
     @Override
     public List<ReviewRating> findByEventId(int eventId) throws Exception {
         String sql = "SELECT * FROM reviews WHERE event_id = ?";
         List<ReviewRating> reviews = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, eventId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -131,7 +186,8 @@ public class ReviewDAOImpl implements ReviewDAO {
         String sql = "SELECT * FROM reviews WHERE user_id = ?";
         List<ReviewRating> reviews = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -148,7 +204,8 @@ public class ReviewDAOImpl implements ReviewDAO {
         String sql = "SELECT * FROM reviews WHERE rating = ?";
         List<ReviewRating> reviews = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, rating);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -162,41 +219,20 @@ public class ReviewDAOImpl implements ReviewDAO {
 
     @Override
     public double getAverageRating(int eventId) throws Exception {
-        String sql = "SELECT AVG(rating) FROM reviews WHERE event_id = ?";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, eventId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getDouble(1);
-                }
-                return 0.0;
-            }
-        }
+        return ratingAggregates.getSummary(eventId, this::loadRatingCounts).getAverageRating();
     }
 
     @Override
     public int getReviewCount(int eventId) throws Exception {
-        String sql = "SELECT COUNT(*) FROM reviews WHERE event_id = ?";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, eventId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
-                return 0;
-            }
-        }
+        return ratingAggregates.getSummary(eventId, this::loadRatingCounts).getReviewCount();
     }
 
     @Override
     public boolean hasUserReviewed(int userId, int eventId) throws Exception {
         String sql = "SELECT COUNT(*) FROM reviews WHERE user_id = ? AND event_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             stmt.setInt(2, eventId);
 
@@ -209,6 +245,42 @@ public class ReviewDAOImpl implements ReviewDAO {
         }
     }
 
+    @Override
+    public Map<Integer, RatingSummary> getRatingSummaries(Collection<Integer> eventIds) throws Exception {
+        return ratingAggregates.getSummaries(eventIds, this::loadRatingCounts);
+    }
+
+    @Override
+    public List<RatingSummary> getTopRatedEvents(int limit, int minReviews) throws Exception {
+        return ratingAggregates.getTopRated(limit, minReviews, this::loadRatingCounts);
+    }
+
+    // Review counts per event and star rating, used to (re)build the aggregates
+    private List<int[]> loadRatingCounts() throws SQLException {
+        String sql = "SELECT event_id, rating, COUNT(*) FROM reviews GROUP BY event_id, rating";
+        List<int[]> rows = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                rows.add(new int[] { rs.getInt(1), rs.getInt(2), rs.getInt(3) });
+            }
+            return rows;
+        }
+    }
+
+    // Reads a review and locks its row until the caller's transaction ends; null if it does not exist
+    private ReviewRating lockReview(Connection conn, int reviewId) throws SQLException {
+        String sql = "SELECT * FROM reviews WHERE review_id = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, reviewId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapResultSetToReview(rs) : null;
+            }
+        }
+    }
+
     private ReviewRating mapResultSetToReview(ResultSet rs) throws SQLException {
         ReviewRating review = new ReviewRating();
         review.setReviewId(rs.getInt("review_id"));
@@ -0,0 +1,10 @@
+package com.etms.daoimpl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Maps the current row of a ResultSet to an entity
+@FunctionalInterface
+interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -1,5 +1,7 @@
 package com.etms.daoimpl;
 
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.SponsorDAO;
 import com.etms.model.Sponsor;
 import com.etms.util.DatabaseUtil;
@@ -13,17 +15,12 @@ import java.util.List;
  * Handles all database operations for the Sponsor entity.
  */
 public class SponsorDAOImpl implements SponsorDAO {
-    private final Connection connection;
-
-    public SponsorDAOImpl() throws SQLException {
-        this.connection = DatabaseUtil.getConnection();
-    }
-
     @Override
     public Sponsor save(Sponsor sponsor) throws Exception {
         String sql = "INSERT INTO sponsors (name, email, phone, status, type, sponsorship_amount) VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, sponsor.getSponsorName());
             stmt.setString(2, sponsor.getContactInfo());
             stmt.setString(3, sponsor.getContactInfo());
@@ -51,7 +48,8 @@ public class SponsorDAOImpl implements SponsorDAO {
     public boolean update(Sponsor sponsor) throws Exception {
         String sql = "UPDATE sponsors SET name = ?, email = ?, phone = ?, status = ?, type = ?, sponsorship_amount = ? WHERE id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, sponsor.getSponsorName());
             stmt.setString(2, sponsor.getContactInfo());
             stmt.setString(3, sponsor.getContactInfo());
@@ -68,7 +66,8 @@ public class SponsorDAOImpl implements SponsorDAO {
     public boolean delete(int sponsorId) throws Exception {
         String sql = "DELETE FROM sponsors WHERE id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, sponsorId);
             return stmt.executeUpdate() > 0;
         }
@@ -78,7 +77,8 @@ public class SponsorDAOImpl implements SponsorDAO {
     public Sponsor findById(int sponsorId) throws Exception {
         String sql = "SELECT * FROM sponsors WHERE id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, sponsorId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -95,7 +95,8 @@ public class SponsorDAOImpl implements SponsorDAO {
         String sql = "SELECT * FROM sponsors";
         List<Sponsor> sponsors = new ArrayList<>();
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = DatabaseUtil.getConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -105,6 +106,13 @@ public class SponsorDAOImpl implements SponsorDAO {
         }
     }
 
+    @Override
+    public Page<Sponsor> findPage(PageRequest request) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return PageQuery.fetch(conn, "sponsors", "id", request, this::mapResultSetToSponsor);
+        }
+    }
+
     @Override
     public List<Sponsor> findByEventId(int eventId) throws Exception {
         String sql = "SELECT s.* FROM sponsors s " +
@@ -112,7 +120,8 @@ public class SponsorDAOImpl implements SponsorDAO {
                 "WHERE es.event_id = ?";
 
         List<Sponsor> sponsors = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, eventId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -129,7 +138,8 @@ public class SponsorDAOImpl implements SponsorDAO {
         String sql = "SELECT * FROM sponsors WHERE status = ?";
 
         List<Sponsor> sponsors = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, status.name());
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -146,7 +156,8 @@ public class SponsorDAOImpl implements SponsorDAO {
         String sql = "SELECT * FROM sponsors WHERE type = ?";
 
         List<Sponsor> sponsors = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, type.name());
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -162,7 +173,8 @@ public class SponsorDAOImpl implements SponsorDAO {
     public double getTotalSponsorshipAmount() throws Exception {
         String sql = "SELECT SUM(sponsorship_amount) FROM sponsors";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = DatabaseUtil.getConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             if (rs.next()) {
@@ -176,7 +188,8 @@ public class SponsorDAOImpl implements SponsorDAO {
     public int getSponsorCount() throws Exception {
         String sql = "SELECT COUNT(*) FROM sponsors";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = DatabaseUtil.getConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             if (rs.next()) {
@@ -190,7 +203,8 @@ public class SponsorDAOImpl implements SponsorDAO {
     public boolean isSponsorAssociated(int sponsorId) throws Exception {
         String sql = "SELECT COUNT(*) FROM event_sponsors WHERE sponsor_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, sponsorId);
 
             try (ResultSet rs = stmt.executeQuery()) {
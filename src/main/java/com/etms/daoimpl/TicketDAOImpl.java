@@ -1,17 +1,36 @@
 package com.etms.daoimpl;
 
+import com.etms.dao.EventDAO;
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.TicketDAO;
+import com.etms.inventory.AvailabilityCounters;
+import com.etms.inventory.SeatInventory;
+import com.etms.inventory.SeatInventoryRegistry;
+import com.etms.inventory.VenueLayout;
+import com.etms.model.Payment;
 import com.etms.model.Ticket;
+import com.etms.model.TicketDetail;
 import com.etms.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TicketDAOImpl implements TicketDAO {
     private static final Logger logger = LoggerFactory.getLogger(TicketDAOImpl.class);
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private final EventDAO eventDAO = new EventDAOImpl();
 
     @Override
     public Ticket findById(int id) throws Exception {
@@ -27,6 +46,13 @@ public class TicketDAOImpl implements TicketDAO {
         return null;
     }
 
+    @Override
+    public Map<Integer, Ticket> findByIds(Collection<Integer> ids) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return IdBatchQuery.fetch(conn, "Ticket", "TicketID", ids, this::mapResultSetToTicket);
+        }
+    }
+
     @Override
     public List<Ticket> findAll() throws Exception {
         List<Ticket> tickets = new ArrayList<>();
@@ -42,23 +68,22 @@ public class TicketDAOImpl implements TicketDAO {
     }
 
     @Override
-    public void save(Ticket ticket) throws Exception {
-        String sql = "INSERT INTO Ticket (UserID, EventID, SeatNumber, BookingDate, Price, TicketType) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setInt(1, ticket.getUserId());
-            stmt.setInt(2, ticket.getEventId());
-            stmt.setString(3, ticket.getSeatNumber());
-            stmt.setTimestamp(4, Timestamp.valueOf(ticket.getBookingDate()));
-            stmt.setBigDecimal(5, ticket.getPrice());
-            stmt.setString(6, ticket.getTicketType().name());
-            stmt.executeUpdate();
+    public Page<Ticket> findPage(PageRequest request) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return PageQuery.fetch(conn, "Ticket", "TicketID", request, this::mapResultSetToTicket);
+        }
+    }
 
-            ResultSet rs = stmt.getGeneratedKeys();
-            if (rs.next()) {
-                ticket.setTicketId(rs.getInt(1));
-            }
+    @Override
+    public Stream<Ticket> streamAll() throws Exception {
+        return ResultSetStreams.stream("SELECT * FROM Ticket", this::mapResultSetToTicket);
+    }
+
+    @Override
+    public void save(Ticket ticket) throws Exception {
+        if (!reserveSeat(ticket)) {
+            throw new SQLException("Seat " + ticket.getSeatNumber() + " is not available for event "
+                    + ticket.getEventId());
         }
     }
 
@@ -66,34 +91,54 @@ public class TicketDAOImpl implements TicketDAO {
     public void update(Ticket ticket) throws Exception {
         String sql = "UPDATE Ticket SET UserID = ?, EventID = ?, SeatNumber = ?, " +
                 "BookingDate = ?, Price = ?, TicketType = ? WHERE TicketID = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, ticket.getUserId());
-            stmt.setInt(2, ticket.getEventId());
-            stmt.setString(3, ticket.getSeatNumber());
-            stmt.setTimestamp(4, Timestamp.valueOf(ticket.getBookingDate()));
-            stmt.setBigDecimal(5, ticket.getPrice());
-            stmt.setString(6, ticket.getTicketType().name());
-            stmt.setInt(7, ticket.getTicketId());
-            stmt.executeUpdate();
+        Ticket previous = findById(ticket.getTicketId());
+        boolean eventChanged = previous != null && previous.getEventId() != ticket.getEventId();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                // Moving a ticket to another event frees a seat on the old one and takes one on the new one
+                if (eventChanged) {
+                    EventDAOImpl.adjustAvailableSeats(conn, previous.getEventId(), 1);
+                    if (!EventDAOImpl.adjustAvailableSeats(conn, ticket.getEventId(), -1)) {
+                        throw new SQLException("No seats left for event " + ticket.getEventId());
+                    }
+                }
+                stmt.setInt(1, ticket.getUserId());
+                stmt.setInt(2, ticket.getEventId());
+                stmt.setString(3, ticket.getSeatNumber());
+                stmt.setTimestamp(4, Timestamp.valueOf(ticket.getBookingDate()));
+                stmt.setBigDecimal(5, ticket.getPrice());
+                stmt.setString(6, ticket.getTicketType().name());
+                stmt.setInt(7, ticket.getTicketId());
+                stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException | RuntimeException | Error e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
+        DatabaseUtil.recordWrite(ticket.getUserId());
+        // The seat or event may have changed; let both inventories reload
+        if (previous != null) {
+            SeatInventoryRegistry.invalidate(previous.getEventId());
+            AvailabilityCounters.invalidate(previous.getEventId());
+        }
+        SeatInventoryRegistry.invalidate(ticket.getEventId());
+        AvailabilityCounters.invalidate(ticket.getEventId());
     }
 
     @Override
     public void delete(int id) throws Exception {
-        String sql = "DELETE FROM Ticket WHERE TicketID = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+        cancelTicket(id);
     }
 
     @Override
     public List<Ticket> findByUserId(int userId) throws Exception {
         List<Ticket> tickets = new ArrayList<>();
         String sql = "SELECT * FROM Ticket WHERE UserID = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection(userId);
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
@@ -104,6 +149,22 @@ public class TicketDAOImpl implements TicketDAO {
         return tickets;
     }
 
+    @Override
+    public List<TicketDetail> findAllTicketDetails() throws Exception {
+        try (Stream<TicketDetail> details = streamTicketDetails()) {
+            return details.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<TicketDetail> streamTicketDetails() throws Exception {
+        String sql = "SELECT t.*, e.EventName, u.Name AS CustomerName FROM Ticket t " +
+                "LEFT JOIN Event e ON t.EventID = e.EventID " +
+                "LEFT JOIN User u ON t.UserID = u.UserID " +
+                "ORDER BY t.TicketID";
+        return ResultSetStreams.stream(sql, this::mapResultSetToTicketDetail);
+    }
+
     @Override
     public List<Ticket> findByEventId(int eventId) throws Exception {
         List<Ticket> tickets = new ArrayList<>();
@@ -149,61 +210,206 @@ public class TicketDAOImpl implements TicketDAO {
         return false;
     }
 
+    @Override
+    public boolean reserveSeat(Ticket ticket) throws Exception {
+        return bookTickets(Collections.singletonList(ticket), null);
+    }
+
+    @Override
+    public boolean bookTickets(List<Ticket> tickets, Payment payment) throws Exception {
+        // Sorted so concurrent bookings lock Event rows in the same order
+        Map<Integer, Integer> seatsPerEvent = new TreeMap<>();
+        Map<Integer, VenueLayout> layouts = new HashMap<>();
+        for (Ticket ticket : tickets) {
+            // A label outside the venue's layout would be booked but never show up in the seat inventory
+            VenueLayout layout = layouts.get(ticket.getEventId());
+            if (layout == null) {
+                layout = findVenueLayout(ticket.getEventId());
+                layouts.put(ticket.getEventId(), layout);
+            }
+            if (layout.toIndex(ticket.getSeatNumber()) < 0) {
+                throw new SQLException("Seat " + ticket.getSeatNumber() + " does not exist for event "
+                        + ticket.getEventId());
+            }
+            seatsPerEvent.merge(ticket.getEventId(), 1, Integer::sum);
+        }
+        for (int attempt = 1;; attempt++) {
+            long committedAt;
+            try (Connection conn = DatabaseUtil.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    insertTicketBatch(conn, tickets);
+                    if (payment != null) {
+                        PaymentDAOImpl.insertPayment(conn, payment);
+                    }
+                    // Last, so the Event row locks are held only for the commit
+                    if (!claimAvailableSeats(conn, seatsPerEvent)) {
+                        conn.rollback();
+                        return false;
+                    }
+                    conn.commit();
+                    committedAt = System.nanoTime();
+                } catch (BatchUpdateException e) {
+                    conn.rollback();
+                    if (e.getCause() instanceof SQLTransactionRollbackException) {
+                        throw (SQLTransactionRollbackException) e.getCause();
+                    }
+                    if (DatabaseUtil.isDuplicateKey(e)) {
+                        return false;
+                    }
+                    throw e;
+                } catch (SQLException | RuntimeException | Error e) {
+                    // Any failure must roll back: turning auto-commit back on would commit the partial work
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLTransactionRollbackException e) {
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Retrying batch booking of {} seats after rollback", tickets.size());
+                continue;
+            }
+            for (Ticket ticket : tickets) {
+                markSeatBooked(ticket);
+                DatabaseUtil.recordWrite(ticket.getUserId());
+            }
+            for (Map.Entry<Integer, Integer> entry : seatsPerEvent.entrySet()) {
+                AvailabilityCounters.add(entry.getKey(), -entry.getValue(), committedAt);
+            }
+            if (payment != null) {
+                PaymentDAOImpl.recordRevenueChange(null, payment, committedAt);
+            }
+            return true;
+        }
+    }
+
+    // Takes the seats off each event's AvailableSeats counter; false if any event has too few left
+    private boolean claimAvailableSeats(Connection conn, Map<Integer, Integer> seatsPerEvent) throws SQLException {
+        for (Map.Entry<Integer, Integer> entry : seatsPerEvent.entrySet()) {
+            if (!EventDAOImpl.adjustAvailableSeats(conn, entry.getKey(), -entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Inserts the tickets as one batch. A seat that is already taken breaks the unique key
+    // uq_ticket_event_seat (see db/schema-updates.sql) and fails the batch with a duplicate-key error.
+    private void insertTicketBatch(Connection conn, List<Ticket> tickets) throws SQLException {
+        String sql = "INSERT INTO Ticket (UserID, EventID, SeatNumber, BookingDate, Price, TicketType) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Ticket ticket : tickets) {
+                stmt.setInt(1, ticket.getUserId());
+                stmt.setInt(2, ticket.getEventId());
+                stmt.setString(3, ticket.getSeatNumber());
+                stmt.setTimestamp(4, Timestamp.valueOf(ticket.getBookingDate()));
+                stmt.setBigDecimal(5, ticket.getPrice());
+                stmt.setString(6, ticket.getTicketType().name());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            ResultSet rs = stmt.getGeneratedKeys();
+            for (Ticket ticket : tickets) {
+                if (!rs.next()) {
+                    break;
+                }
+                ticket.setTicketId(rs.getInt(1));
+            }
+        }
+    }
+
+    // Capacity less the maintained AvailableSeats counter, so no Ticket rows are counted
     @Override
     public int getBookedTicketsCount(int eventId) throws Exception {
-        String sql = "SELECT COUNT(*) FROM Ticket WHERE EventID = ?";
+        String sql = "SELECT v.Capacity FROM Event e JOIN Venue v ON e.VenueID = v.VenueID WHERE e.EventID = ?";
+        int capacity;
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, eventId);
             ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
+            if (!rs.next()) {
+                return 0;
             }
+            capacity = rs.getInt(1);
         }
-        return 0;
+        return Math.max(0, capacity - eventDAO.getAvailableSeats(eventId));
     }
 
     @Override
     public List<String> getAvailableSeats(int eventId) throws Exception {
-        List<String> availableSeats = new ArrayList<>();
-        String sql = "SELECT v.Capacity, t.SeatNumber " +
-                "FROM Event e " +
-                "JOIN Venue v ON e.VenueID = v.VenueID " +
-                "LEFT JOIN Ticket t ON e.EventID = t.EventID " +
-                "WHERE e.EventID = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, eventId);
-            ResultSet rs = stmt.executeQuery();
-            int capacity = 0;
-            if (rs.next()) {
-                capacity = rs.getInt("Capacity");
-            }
+        return SeatInventoryRegistry.get(eventId, this::loadSeatInventory).getAvailableSeats();
+    }
 
-            // Generate all possible seat numbers
-            for (int i = 1; i <= capacity; i++) {
-                availableSeats.add("A" + i);
-            }
+    @Override
+    public int getAvailableSeatCount(int eventId) throws Exception {
+        return SeatInventoryRegistry.get(eventId, this::loadSeatInventory).getAvailableCount();
+    }
 
-            // Remove booked seats
-            while (rs.next()) {
-                String seatNumber = rs.getString("SeatNumber");
-                if (seatNumber != null) {
-                    availableSeats.remove(seatNumber);
-                }
-            }
-        }
-        return availableSeats;
+    @Override
+    public List<String> getNextAvailableSeats(int eventId, int count) throws Exception {
+        return SeatInventoryRegistry.get(eventId, this::loadSeatInventory).getNextAvailableSeats(count);
+    }
+
+    @Override
+    public Map<String, Integer> getAvailableSeatCountBySection(int eventId) throws Exception {
+        return SeatInventoryRegistry.get(eventId, this::loadSeatInventory).getAvailableCountBySection();
+    }
+
+    @Override
+    public SeatInventory getSeatInventory(int eventId) throws Exception {
+        return SeatInventoryRegistry.get(eventId, this::loadSeatInventory);
     }
 
     @Override
     public boolean cancelTicket(int ticketId) throws Exception {
-        String sql = "DELETE FROM Ticket WHERE TicketID = ?";
+        String selectSql = "SELECT UserID, EventID, SeatNumber FROM Ticket WHERE TicketID = ?";
+        String deleteSql = "DELETE FROM Ticket WHERE TicketID = ?";
+        int userId;
+        int eventId;
+        String seatNumber;
+        long committedAt;
         try (Connection conn = DatabaseUtil.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, ticketId);
-            return stmt.executeUpdate() > 0;
+                PreparedStatement selectStmt = conn.prepareStatement(selectSql);
+                PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+            conn.setAutoCommit(false);
+            try {
+                selectStmt.setInt(1, ticketId);
+                ResultSet rs = selectStmt.executeQuery();
+                if (!rs.next()) {
+                    conn.rollback();
+                    return false;
+                }
+                userId = rs.getInt("UserID");
+                eventId = rs.getInt("EventID");
+                seatNumber = rs.getString("SeatNumber");
+
+                deleteStmt.setInt(1, ticketId);
+                if (deleteStmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                EventDAOImpl.adjustAvailableSeats(conn, eventId, 1);
+                conn.commit();
+                committedAt = System.nanoTime();
+            } catch (SQLException | RuntimeException | Error e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        SeatInventory inventory = SeatInventoryRegistry.getIfLoaded(eventId);
+        if (inventory != null) {
+            inventory.release(seatNumber);
         }
+        AvailabilityCounters.add(eventId, 1, committedAt);
+        DatabaseUtil.recordWrite(userId);
+        return true;
     }
 
     @Override
@@ -213,7 +419,7 @@ public class TicketDAOImpl implements TicketDAO {
                 "JOIN Event e ON t.EventID = e.EventID " +
                 "WHERE t.UserID = ? AND e.Date >= CURRENT_DATE " +
                 "ORDER BY e.Date, e.Time";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection(userId);
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
@@ -231,7 +437,7 @@ public class TicketDAOImpl implements TicketDAO {
                 "JOIN Event e ON t.EventID = e.EventID " +
                 "WHERE t.UserID = ? AND e.Date < CURRENT_DATE " +
                 "ORDER BY e.Date DESC, e.Time DESC";
-        try (Connection conn = DatabaseUtil.getConnection();
+        try (Connection conn = DatabaseUtil.getReadConnection(userId);
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
@@ -242,8 +448,76 @@ public class TicketDAOImpl implements TicketDAO {
         return tickets;
     }
 
+    // The loaded inventory's layout if there is one; otherwise only the layout is read, not the booked seats
+    private VenueLayout findVenueLayout(int eventId) throws SQLException {
+        SeatInventory inventory = SeatInventoryRegistry.getIfLoaded(eventId);
+        if (inventory != null) {
+            return inventory.getLayout();
+        }
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return loadVenueLayout(conn, eventId);
+        }
+    }
+
+    private VenueLayout loadVenueLayout(Connection conn, int eventId) throws SQLException {
+        String capacitySql = "SELECT v.Capacity, l.LayoutSpec FROM Event e JOIN Venue v ON e.VenueID = v.VenueID " +
+                "LEFT JOIN VenueLayout l ON l.VenueID = v.VenueID WHERE e.EventID = ?";
+        try (PreparedStatement capacityStmt = conn.prepareStatement(capacitySql)) {
+            capacityStmt.setInt(1, eventId);
+            ResultSet rs = capacityStmt.executeQuery();
+            int capacity = 0;
+            String layoutSpec = null;
+            if (rs.next()) {
+                capacity = rs.getInt("Capacity");
+                layoutSpec = rs.getString("LayoutSpec");
+            }
+            VenueLayout layout = layoutSpec != null ? VenueLayout.of(layoutSpec) : VenueLayout.singleRow(capacity);
+            if (layoutSpec != null && layout.getCapacity() != capacity) {
+                logger.warn("Seating layout for event {} has {} seats but the venue capacity is {}",
+                        eventId, layout.getCapacity(), capacity);
+            }
+            return layout;
+        }
+    }
+
+    private SeatInventory loadSeatInventory(int eventId) throws SQLException {
+        String seatsSql = "SELECT SeatNumber FROM Ticket WHERE EventID = ?";
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement seatsStmt = conn.prepareStatement(seatsSql)) {
+            SeatInventory inventory = new SeatInventory(eventId, loadVenueLayout(conn, eventId));
+            seatsStmt.setInt(1, eventId);
+            ResultSet rs = seatsStmt.executeQuery();
+            while (rs.next()) {
+                inventory.claim(rs.getString("SeatNumber"));
+            }
+            logger.debug("Loaded seat inventory for event {}: {} of {} seats booked",
+                    eventId, inventory.getBookedCount(), inventory.getCapacity());
+            return inventory;
+        }
+    }
+
+    private void markSeatBooked(Ticket ticket) {
+        SeatInventory inventory = SeatInventoryRegistry.getIfLoaded(ticket.getEventId());
+        if (inventory != null) {
+            inventory.claim(ticket.getSeatNumber());
+        }
+    }
+
+    private TicketDetail mapResultSetToTicketDetail(ResultSet rs) throws SQLException {
+        TicketDetail detail = new TicketDetail();
+        populateTicket(detail, rs);
+        detail.setEventName(rs.getString("EventName"));
+        detail.setCustomerName(rs.getString("CustomerName"));
+        return detail;
+    }
+
     private Ticket mapResultSetToTicket(ResultSet rs) throws SQLException {
         Ticket ticket = new Ticket();
+        populateTicket(ticket, rs);
+        return ticket;
+    }
+
+    private void populateTicket(Ticket ticket, ResultSet rs) throws SQLException {
         ticket.setTicketId(rs.getInt("TicketID"));
         ticket.setUserId(rs.getInt("UserID"));
         ticket.setEventId(rs.getInt("EventID"));
@@ -251,6 +525,5 @@ public class TicketDAOImpl implements TicketDAO {
         ticket.setBookingDate(rs.getTimestamp("BookingDate").toLocalDateTime());
         ticket.setPrice(rs.getBigDecimal("Price"));
         ticket.setTicketType(Ticket.TicketType.valueOf(rs.getString("TicketType")));
-        return ticket;
     }
 }
\ No newline at end of file
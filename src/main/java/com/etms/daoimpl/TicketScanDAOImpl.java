@@ -0,0 +1,75 @@
+package com.etms.daoimpl;
+
+import com.etms.dao.TicketScanDAO;
+import com.etms.model.TicketScan;
+import com.etms.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the TicketScanDAO interface.
+ * Each ticket has at most one TicketScan row, its first entry through a gate.
+ */
+public class TicketScanDAOImpl implements TicketScanDAO {
+
+    @Override
+    public int saveAll(List<TicketScan> scans) throws Exception {
+        if (scans.isEmpty()) {
+            return 0;
+        }
+        // IGNORE skips duplicates and tickets cancelled since the scan instead of failing the batch
+        String sql = "INSERT IGNORE INTO TicketScan (TicketID, EventID, Gate, ScannedAt) VALUES (?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (TicketScan scan : scans) {
+                stmt.setInt(1, scan.getTicketId());
+                stmt.setInt(2, scan.getEventId());
+                stmt.setString(3, scan.getGate());
+                stmt.setTimestamp(4, Timestamp.valueOf(scan.getScannedAt()));
+                stmt.addBatch();
+            }
+            int saved = 0;
+            for (int count : stmt.executeBatch()) {
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    saved++;
+                }
+            }
+            return saved;
+        }
+    }
+
+    @Override
+    public List<Integer> findScannedTicketIds(int eventId) throws Exception {
+        List<Integer> ticketIds = new ArrayList<>();
+        String sql = "SELECT TicketID FROM TicketScan WHERE EventID = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, eventId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ticketIds.add(rs.getInt("TicketID"));
+                }
+            }
+        }
+        return ticketIds;
+    }
+
+    @Override
+    public int countByEventId(int eventId) throws Exception {
+        String sql = "SELECT COUNT(*) FROM TicketScan WHERE EventID = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, eventId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.etms.daoimpl;
 
+import com.etms.cache.EmailFilter;
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.UserDAO;
 import com.etms.model.User;
 import com.etms.util.DatabaseUtil;
@@ -12,10 +15,47 @@ import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class UserDAOImpl implements UserDAO {
     private static final Logger logger = LoggerFactory.getLogger(UserDAOImpl.class);
+    private static final EmailFilter emailFilter = new EmailFilter("User");
+    private static final EmailFilter.Source EMAIL_SOURCE = new EmailFilter.Source() {
+        @Override
+        public long count() throws Exception {
+            try (Connection conn = DatabaseUtil.getConnection();
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM User")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+
+        @Override
+        public void forEach(Consumer<String> sink) throws Exception {
+            try (Connection conn = DatabaseUtil.getConnection();
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT Email FROM User")) {
+                while (rs.next()) {
+                    sink.accept(rs.getString(1));
+                }
+            }
+        }
+    };
+
+    /**
+     * Loads the email Bloom filter ahead of the first registration check.
+     */
+    public static void preloadEmailFilter() throws Exception {
+        emailFilter.load(EMAIL_SOURCE);
+    }
+
+    public static String getEmailFilterStats() {
+        return emailFilter.getStats();
+    }
 
     @Override
     public User findById(int id) throws Exception {
@@ -31,6 +71,13 @@ public class UserDAOImpl implements UserDAO {
         return null;
     }
 
+    @Override
+    public Map<Integer, User> findByIds(Collection<Integer> ids) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return IdBatchQuery.fetch(conn, "User", "UserID", ids, this::mapResultSetToUser);
+        }
+    }
+
     @Override
     public List<User> findAll() throws Exception {
         List<User> users = new ArrayList<>();
@@ -45,6 +92,18 @@ public class UserDAOImpl implements UserDAO {
         return users;
     }
 
+    @Override
+    public Page<User> findPage(PageRequest request) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return PageQuery.fetch(conn, "User", "UserID", request, this::mapResultSetToUser);
+        }
+    }
+
+    @Override
+    public Stream<User> streamAll() throws Exception {
+        return ResultSetStreams.stream("SELECT * FROM User", this::mapResultSetToUser);
+    }
+
     @Override
     public void save(User user) throws Exception {
         String sql = "INSERT INTO User (Name, Email, Phone, Password, UserType) VALUES (?, ?, ?, ?, ?)";
@@ -61,7 +120,10 @@ public class UserDAOImpl implements UserDAO {
             if (rs.next()) {
                 user.setUserId(rs.getInt(1));
             }
+        } catch (SQLException e) {
+            throw emailConflict(e);
         }
+        emailFilter.add(user.getEmail());
     }
 
     @Override
@@ -76,7 +138,10 @@ public class UserDAOImpl implements UserDAO {
             stmt.setString(5, user.getUserType().name().toUpperCase());
             stmt.setInt(6, user.getUserId());
             stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw emailConflict(e);
         }
+        emailFilter.add(user.getEmail());
     }
 
     @Override
@@ -123,6 +188,14 @@ public class UserDAOImpl implements UserDAO {
         return null;
     }
 
+    // Reports a unique-key violation on Email as a duplicate registration
+    private static SQLException emailConflict(SQLException e) {
+        if (DatabaseUtil.isDuplicateKey(e)) {
+            return new SQLException("Email already registered", e.getSQLState(), e);
+        }
+        return e;
+    }
+
     private String hashPassword(String password) throws NoSuchAlgorithmException {
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
         byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
@@ -160,6 +233,11 @@ public class UserDAOImpl implements UserDAO {
 
     @Override
     public boolean isEmailExists(String email) throws Exception {
+        // A Bloom filter miss skips the query. Registrations made by other instances since the last
+        // rebuild may be missing from it; the unique key on Email rejects those in save()
+        if (email == null || !emailFilter.mightContain(email, EMAIL_SOURCE)) {
+            return false;
+        }
         String sql = "SELECT COUNT(*) FROM User WHERE Email = ?";
         try (Connection conn = DatabaseUtil.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -1,29 +1,28 @@
 package com.etms.daoimpl;
 
+import com.etms.dao.Page;
+import com.etms.dao.PageRequest;
 import com.etms.dao.VenueDAO;
 import com.etms.model.Venue;
 import com.etms.util.DatabaseUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of the VenueDAO interface.
  * Handles all database operations for the Venue entity.
  */
 public class VenueDAOImpl implements VenueDAO {
-    private final Connection connection;
-
-    public VenueDAOImpl() throws SQLException {
-        this.connection = DatabaseUtil.getConnection();
-    }
-
     @Override
     public void save(Venue venue) throws Exception {
         String sql = "INSERT INTO venues (venue_name, location, capacity, contact_info) VALUES (?, ?, ?, ?)";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, venue.getVenueName());
             stmt.setString(2, venue.getLocation());
             stmt.setInt(3, venue.getCapacity());
@@ -48,7 +47,8 @@ public class VenueDAOImpl implements VenueDAO {
     public void update(Venue venue) throws Exception {
         String sql = "UPDATE venues SET venue_name = ?, location = ?, capacity = ?, contact_info = ? WHERE venue_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, venue.getVenueName());
             stmt.setString(2, venue.getLocation());
             stmt.setInt(3, venue.getCapacity());
@@ -66,7 +66,8 @@ public class VenueDAOImpl implements VenueDAO {
     public void delete(int venueId) throws Exception {
         String sql = "DELETE FROM venues WHERE venue_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, venueId);
 
             int affectedRows = stmt.executeUpdate();
@@ -80,7 +81,8 @@ public class VenueDAOImpl implements VenueDAO {
     public Venue findById(int venueId) throws Exception {
         String sql = "SELECT * FROM venues WHERE venue_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, venueId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -92,11 +94,19 @@ public class VenueDAOImpl implements VenueDAO {
         }
     }
 
+    @Override
+    public Map<Integer, Venue> findByIds(Collection<Integer> ids) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return IdBatchQuery.fetch(conn, "venues", "venue_id", ids, this::mapResultSetToVenue);
+        }
+    }
+
     @Override
     public Venue findByName(String venueName) throws Exception {
         String sql = "SELECT * FROM venues WHERE venue_name = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, venueName);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -113,7 +123,8 @@ public class VenueDAOImpl implements VenueDAO {
         String sql = "SELECT * FROM venues";
         List<Venue> venues = new ArrayList<>();
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = DatabaseUtil.getReadConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -123,12 +134,20 @@ public class VenueDAOImpl implements VenueDAO {
         }
     }
 
+    @Override
+    public Page<Venue> findPage(PageRequest request) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return PageQuery.fetch(conn, "venues", "venue_id", request, this::mapResultSetToVenue);
+        }
+    }
+
     @Override
     public List<Venue> findByLocation(String location) throws Exception {
         String sql = "SELECT * FROM venues WHERE location = ?";
         List<Venue> venues = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, location);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -145,7 +164,8 @@ public class VenueDAOImpl implements VenueDAO {
         String sql = "SELECT * FROM venues WHERE capacity >= ?";
         List<Venue> venues = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, minCapacity);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -161,7 +181,8 @@ public class VenueDAOImpl implements VenueDAO {
     public boolean isVenueNameExists(String venueName) throws Exception {
         String sql = "SELECT COUNT(*) FROM venues WHERE venue_name = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, venueName);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -177,7 +198,8 @@ public class VenueDAOImpl implements VenueDAO {
     public int getVenueCount() throws Exception {
         String sql = "SELECT COUNT(*) FROM venues";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = DatabaseUtil.getConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             if (rs.next()) {
@@ -191,7 +213,8 @@ public class VenueDAOImpl implements VenueDAO {
     public int getTotalCapacity() throws Exception {
         String sql = "SELECT SUM(capacity) FROM venues";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = DatabaseUtil.getReadConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             if (rs.next()) {
@@ -205,7 +228,8 @@ public class VenueDAOImpl implements VenueDAO {
     public boolean isVenueAssociated(int venueId) throws Exception {
         String sql = "SELECT COUNT(*) FROM events WHERE venue_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, venueId);
 
             try (ResultSet rs = stmt.executeQuery()) {
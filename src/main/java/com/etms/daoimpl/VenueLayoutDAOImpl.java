@@ -0,0 +1,58 @@
+package com.etms.daoimpl;
+
+import com.etms.dao.VenueLayoutDAO;
+import com.etms.inventory.VenueLayout;
+import com.etms.util.DatabaseUtil;
+
+import java.sql.*;
+
+/**
+ * Implementation of the VenueLayoutDAO interface.
+ * Layouts are stored as their compact spec string, one row per venue.
+ */
+public class VenueLayoutDAOImpl implements VenueLayoutDAO {
+
+    @Override
+    public VenueLayout findByVenueId(int venueId) throws Exception {
+        String sql = "SELECT LayoutSpec FROM VenueLayout WHERE VenueID = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, venueId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return VenueLayout.of(rs.getString("LayoutSpec"));
+                }
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void save(int venueId, VenueLayout layout) throws Exception {
+        String sql = "INSERT INTO VenueLayout (VenueID, LayoutSpec) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE LayoutSpec = VALUES(LayoutSpec)";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, venueId);
+            stmt.setString(2, layout.getSpec());
+
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("Saving venue layout failed, no rows affected.");
+            }
+        }
+    }
+
+    @Override
+    public boolean delete(int venueId) throws Exception {
+        String sql = "DELETE FROM VenueLayout WHERE VenueID = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, venueId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.etms.exception;
+
+import com.etms.util.AdmissionQueue;
+
+// Thrown when a booking is attempted before the user has been admitted from the waiting room
+public class WaitingRoomException extends ETMSException {
+    private final AdmissionQueue.Status status;
+
+    public WaitingRoomException(AdmissionQueue.Status status) {
+        super("Booking is busy; you are number " + status.getPosition() + " in line, about "
+                + status.getEstimatedWaitSeconds() + " seconds to go");
+        this.status = status;
+    }
+
+    public AdmissionQueue.Status getStatus() {
+        return status;
+    }
+}
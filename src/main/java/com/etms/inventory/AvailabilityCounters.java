@@ -0,0 +1,100 @@
+package com.etms.inventory;
+
+import com.etms.util.AppConfig;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory mirror of the {@code Event.AvailableSeats} counters.
+ * Booking and cancellation paths apply their deltas here after their transaction commits,
+ * so availability reads do not touch the database. Counters are reloaded after
+ * {@code etms.inventory.refreshSeconds} to pick up changes made by other application instances.
+ *
+ * <p>Each delta carries the {@link System#nanoTime()} taken just after its commit. A counter
+ * being loaded already receives deltas while its query runs, and a delta committed before the
+ * load started is dropped because the loaded value includes it, so no change is lost or
+ * applied twice when a reload overlaps a booking.
+ */
+public final class AvailabilityCounters {
+    private static final ConcurrentMap<Integer, Counter> counters = new ConcurrentHashMap<>();
+    // Counters whose load is still running; they collect deltas until they replace the current one
+    private static final ConcurrentMap<Integer, Counter> loading = new ConcurrentHashMap<>();
+    private static final long refreshNanos = TimeUnit.SECONDS.toNanos(
+            AppConfig.getLong("etms.inventory.refreshSeconds", 30));
+
+    @FunctionalInterface
+    public interface Loader {
+        int load(int eventId) throws Exception;
+    }
+
+    private static final class Counter {
+        final LongAdder available = new LongAdder();
+        final long loadStartedAt = System.nanoTime();
+        volatile long loadedAt;
+
+        void add(int delta, long committedNanos) {
+            if (committedNanos - loadStartedAt >= 0) {
+                available.add(delta);
+            }
+        }
+    }
+
+    private AvailabilityCounters() {
+    }
+
+    // Returns the event's available seat count, loading it if absent or stale
+    public static int get(int eventId, Loader loader) throws Exception {
+        Counter counter = counters.get(eventId);
+        if (counter == null || System.nanoTime() - counter.loadedAt >= refreshNanos) {
+            counter = load(eventId, loader);
+        }
+        return (int) Math.max(0, counter.available.sum());
+    }
+
+    // Applies a change committed at committedNanos; events that are not loaded pick it up on their next load
+    public static void add(int eventId, int delta, long committedNanos) {
+        // Loading counter first: once it is gone it has already replaced the current one
+        Counter next = loading.get(eventId);
+        if (next != null) {
+            next.add(delta, committedNanos);
+        }
+        Counter counter = counters.get(eventId);
+        if (counter != null && counter != next) {
+            counter.add(delta, committedNanos);
+        }
+    }
+
+    public static void invalidate(int eventId) {
+        loading.remove(eventId);
+        counters.remove(eventId);
+    }
+
+    public static void clear() {
+        loading.clear();
+        counters.clear();
+    }
+
+    private static Counter load(int eventId, Loader loader) throws Exception {
+        Counter fresh = new Counter();
+        loading.put(eventId, fresh);
+        try {
+            fresh.available.add(loader.load(eventId));
+        } catch (Exception | Error e) {
+            loading.remove(eventId, fresh);
+            throw e;
+        }
+        fresh.loadedAt = System.nanoTime();
+        // Installed only if no newer load or invalidate() took its place meanwhile
+        loading.computeIfPresent(eventId, (id, pending) -> {
+            if (pending != fresh) {
+                return pending;
+            }
+            counters.put(eventId, fresh);
+            return null;
+        });
+        return fresh;
+    }
+}
@@ -0,0 +1,95 @@
+package com.etms.inventory;
+
+/**
+ * Segment tree over the seats of one row that tracks runs of consecutive free seats.
+ * Each node stores the longest free run in its range and the free runs touching its left
+ * and right edges, so the leftmost block of N adjacent free seats is found in O(log n)
+ * and marking a seat taken or free costs O(log n). Not thread-safe; the owning
+ * {@link SeatInventory} serializes access.
+ */
+class FreeRunTree {
+    private final int length;
+    private final int leaves;
+    private final int[] best;
+    private final int[] prefix;
+    private final int[] suffix;
+
+    // Starts with every seat free
+    FreeRunTree(int length) {
+        this.length = length;
+        int size = 1;
+        while (size < Math.max(1, length)) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.best = new int[2 * size];
+        this.prefix = new int[2 * size];
+        this.suffix = new int[2 * size];
+        for (int i = 0; i < length; i++) {
+            best[size + i] = prefix[size + i] = suffix[size + i] = 1;
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            pull(node, width(node));
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    void setFree(int position, boolean free) {
+        int node = leaves + position;
+        int value = free ? 1 : 0;
+        best[node] = prefix[node] = suffix[node] = value;
+        int width = 1;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            width <<= 1;
+            pull(node, width);
+        }
+    }
+
+    int longestRun() {
+        return best[1];
+    }
+
+    // Start of the leftmost run of count free seats, or -1 if there is none
+    int findRun(int count) {
+        if (count <= 0 || best[1] < count) {
+            return -1;
+        }
+        int node = 1;
+        int start = 0;
+        int width = leaves;
+        while (node < leaves) {
+            int left = 2 * node;
+            int half = width >> 1;
+            if (best[left] >= count) {
+                node = left;
+            } else if (suffix[left] + prefix[left + 1] >= count) {
+                return start + half - suffix[left];
+            } else {
+                node = left + 1;
+                start += half;
+            }
+            width = half;
+        }
+        return start;
+    }
+
+    private int width(int node) {
+        int width = leaves;
+        for (int n = node; n > 1; n >>= 1) {
+            width >>= 1;
+        }
+        return width;
+    }
+
+    private void pull(int node, int width) {
+        int left = 2 * node;
+        int right = left + 1;
+        int half = width >> 1;
+        prefix[node] = prefix[left] == half ? half + prefix[right] : prefix[left];
+        suffix[node] = suffix[right] == half ? half + suffix[left] : suffix[right];
+        best[node] = Math.max(Math.max(best[left], best[right]), suffix[left] + prefix[right]);
+    }
+}
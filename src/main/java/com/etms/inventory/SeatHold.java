@@ -0,0 +1,78 @@
+package com.etms.inventory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Seats set aside for one customer while they check out. Holds live only in memory and
+ * lapse at {@link #getExpiresAt()} unless they are extended, released or converted to tickets.
+ */
+public class SeatHold {
+    private final long holdId;
+    private final int userId;
+    private final int eventId;
+    private final List<String> seats;
+    private final boolean adjacent;
+    private volatile long expiresAtMillis;
+
+    SeatHold(long holdId, int userId, int eventId, List<String> seats, boolean adjacent, long expiresAtMillis) {
+        this.holdId = holdId;
+        this.userId = userId;
+        this.eventId = eventId;
+        this.seats = Collections.unmodifiableList(seats);
+        this.adjacent = adjacent;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public long getHoldId() {
+        return holdId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public List<String> getSeats() {
+        return seats;
+    }
+
+    // True if the seats sit side by side in one row
+    public boolean isAdjacent() {
+        return adjacent;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault());
+    }
+
+    public long getRemainingSeconds() {
+        return Math.max(0, (expiresAtMillis - System.currentTimeMillis()) / 1000);
+    }
+
+    long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    void setExpiresAtMillis(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "holdId=" + holdId +
+                ", userId=" + userId +
+                ", eventId=" + eventId +
+                ", seats=" + seats +
+                ", adjacent=" + adjacent +
+                ", expiresAt=" + getExpiresAt() +
+                '}';
+    }
+}
@@ -0,0 +1,203 @@
+package com.etms.inventory;
+
+import com.etms.util.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps seats aside for customers during checkout. Held seats are marked in the event's
+ * {@link SeatInventory}, so they drop out of availability listings until the hold is converted
+ * to tickets, released, or expires. Expiry is driven by one {@link TimingWheel} advanced by a
+ * single daemon thread, so the number of holds does not change the number of scheduled tasks.
+ */
+public class SeatHoldManager {
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldManager.class);
+
+    private final TimingWheel<SeatHold> wheel;
+    private final Map<Long, SeatHold> holds = new HashMap<>();
+    private final Map<Long, TimingWheel<SeatHold>.Timeout> timeouts = new HashMap<>();
+    private final long maxHoldMillis;
+    private final AtomicLong nextHoldId = new AtomicLong();
+    private final LongAdder expiredCount = new LongAdder();
+    private ScheduledExecutorService ticker;
+
+    public SeatHoldManager(long tickMillis, long maxHoldSeconds) {
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.maxHoldMillis = TimeUnit.SECONDS.toMillis(maxHoldSeconds);
+    }
+
+    // Holds exactly these seats; returns null if any of them is booked or already held
+    public SeatHold holdSeats(int userId, SeatInventory inventory, List<String> seats, long seconds) {
+        int[] indexes = new int[seats.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = inventory.getLayout().toIndex(seats.get(i));
+        }
+        if (!inventory.hold(indexes)) {
+            return null;
+        }
+        return register(userId, inventory, indexes, new ArrayList<>(seats), seconds);
+    }
+
+    // Holds the first count free seats; returns null if fewer are free
+    public SeatHold holdNextSeats(int userId, SeatInventory inventory, int count, long seconds) {
+        return holdNextSeats(userId, inventory, count, null, seconds);
+    }
+
+    // Holds the first count free seats of the given rows (all rows if null); returns null if fewer are free
+    public SeatHold holdNextSeats(int userId, SeatInventory inventory, int count, int[] rows, long seconds) {
+        int[] indexes = inventory.holdNext(count, rows);
+        if (indexes.length == 0) {
+            return null;
+        }
+        return register(userId, inventory, indexes, toLabels(inventory, indexes), seconds);
+    }
+
+    // Holds count adjacent seats in the front-most of the given rows that fits (all rows if null); null if none fits
+    public SeatHold holdBestAvailable(int userId, SeatInventory inventory, int count, int[] rows, long seconds) {
+        int[] indexes = inventory.holdBestAvailable(count, rows);
+        if (indexes.length == 0) {
+            return null;
+        }
+        return register(userId, inventory, indexes, toLabels(inventory, indexes), seconds);
+    }
+
+    // Pushes the expiry to seconds from now; returns null if the hold has already ended
+    public synchronized SeatHold extend(long holdId, long seconds) {
+        SeatHold hold = holds.get(holdId);
+        TimingWheel<SeatHold>.Timeout timeout = timeouts.get(holdId);
+        if (hold == null || timeout == null || !timeout.cancel()) {
+            return null;
+        }
+        hold.setExpiresAtMillis(expiryFromNow(seconds));
+        timeouts.put(holdId, wheel.schedule(hold, hold.getExpiresAtMillis()));
+        ensureTicking();
+        return hold;
+    }
+
+    // Ends the hold and frees its seats; returns false if it had already ended
+    public boolean release(long holdId) {
+        SeatHold hold = take(holdId);
+        if (hold == null) {
+            return false;
+        }
+        releaseSeats(hold);
+        return true;
+    }
+
+    // Ends the hold without freeing its seats, so they can be booked; returns null if it had already ended
+    public synchronized SeatHold take(long holdId) {
+        SeatHold hold = holds.remove(holdId);
+        TimingWheel<SeatHold>.Timeout timeout = timeouts.remove(holdId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return hold;
+    }
+
+    // Frees the seats of a hold that was taken but not booked
+    public void releaseSeats(SeatHold hold) {
+        SeatInventory inventory = SeatInventoryRegistry.getIfLoaded(hold.getEventId());
+        if (inventory != null) {
+            for (String seat : hold.getSeats()) {
+                inventory.releaseHold(seat);
+            }
+        }
+    }
+
+    public synchronized SeatHold get(long holdId) {
+        return holds.get(holdId);
+    }
+
+    public synchronized int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    public synchronized void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    private synchronized SeatHold register(int userId, SeatInventory inventory, int[] indexes, List<String> seats,
+            long seconds) {
+        SeatHold hold = new SeatHold(nextHoldId.incrementAndGet(), userId, inventory.getEventId(), seats,
+                isAdjacent(inventory.getLayout(), indexes), expiryFromNow(seconds));
+        holds.put(hold.getHoldId(), hold);
+        timeouts.put(hold.getHoldId(), wheel.schedule(hold, hold.getExpiresAtMillis()));
+        ensureTicking();
+        return hold;
+    }
+
+    // True if the seats are consecutive in one row, in any order
+    private static boolean isAdjacent(VenueLayout layout, int[] indexes) {
+        int[] sorted = indexes.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[i - 1] + 1 || layout.rowOf(sorted[i]) != layout.rowOf(sorted[0])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> toLabels(SeatInventory inventory, int[] indexes) {
+        List<String> seats = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            seats.add(inventory.getLayout().toLabel(index));
+        }
+        return seats;
+    }
+
+    private long expiryFromNow(long seconds) {
+        return System.currentTimeMillis() + Math.max(1, Math.min(TimeUnit.SECONDS.toMillis(seconds), maxHoldMillis));
+    }
+
+    private void ensureTicking() {
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "etms-seat-hold-expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long tick = wheel.getTickMillis();
+            ticker.scheduleAtFixedRate(this::expireDue, tick, tick, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void expireDue() {
+        try {
+            List<SeatHold> expired;
+            synchronized (this) {
+                expired = wheel.advanceTo(System.currentTimeMillis());
+                for (SeatHold hold : expired) {
+                    holds.remove(hold.getHoldId());
+                    timeouts.remove(hold.getHoldId());
+                }
+            }
+            for (SeatHold hold : expired) {
+                releaseSeats(hold);
+                expiredCount.increment();
+                logger.debug("Seat hold {} expired, released seats {}", hold.getHoldId(), hold.getSeats());
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task, stopping all expiry
+            logger.error("Failed to expire seat holds", e);
+        }
+    }
+}
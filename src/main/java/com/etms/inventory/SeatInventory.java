@@ -0,0 +1,338 @@
+package com.etms.inventory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Booked/held/free state of every seat of one event, packed one bit per seat in two bitmaps.
+ * Booked seats have a committed ticket; held seats are reserved for a customer at checkout
+ * (see {@link SeatHoldManager}) and are not offered to anyone else. Seats are indexed and
+ * labelled by the venue's {@link VenueLayout}; free seats are counted per section as they
+ * change, and per-row {@link FreeRunTree}s, built on first use, find blocks of adjacent free
+ * seats for group bookings. All operations lock only this event.
+ */
+public class SeatInventory {
+    private final int eventId;
+    private final VenueLayout layout;
+    private final int capacity;
+    private final BitSet booked;
+    private final BitSet held;
+    private final int[] sectionFree;
+    private FreeRunTree[] runTrees;
+    private final long loadedAt;
+    private int bookedCount;
+    private int heldCount;
+    private volatile boolean stale;
+
+    public SeatInventory(int eventId, int capacity) {
+        this(eventId, VenueLayout.singleRow(capacity));
+    }
+
+    public SeatInventory(int eventId, VenueLayout layout) {
+        this.eventId = eventId;
+        this.layout = layout;
+        this.capacity = layout.getCapacity();
+        this.booked = new BitSet(capacity);
+        this.held = new BitSet(capacity);
+        this.sectionFree = new int[layout.getSectionCount()];
+        for (int row = 0; row < layout.getRowCount(); row++) {
+            sectionFree[layout.getRowSection(row)] += layout.getRowEnd(row) - layout.getRowStart(row);
+        }
+        this.loadedAt = System.nanoTime();
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public VenueLayout getLayout() {
+        return layout;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    long getLoadedAt() {
+        return loadedAt;
+    }
+
+    boolean isStale() {
+        return stale;
+    }
+
+    void markStale() {
+        stale = true;
+    }
+
+    // Marks a seat as booked, ending any hold on it; returns false if it was already booked or is out of range
+    public synchronized boolean claim(int index) {
+        if (index < 0 || index >= capacity || booked.get(index)) {
+            return false;
+        }
+        boolean wasFree = !held.get(index);
+        booked.set(index);
+        bookedCount++;
+        if (!wasFree) {
+            held.clear(index);
+            heldCount--;
+        }
+        seatChanged(index, wasFree);
+        return true;
+    }
+
+    public boolean claim(String seatLabel) {
+        return claim(layout.toIndex(seatLabel));
+    }
+
+    // Marks a seat as free again; returns false if it was not booked
+    public synchronized boolean release(int index) {
+        if (index < 0 || index >= capacity || !booked.get(index)) {
+            return false;
+        }
+        booked.clear(index);
+        bookedCount--;
+        seatChanged(index, false);
+        return true;
+    }
+
+    public boolean release(String seatLabel) {
+        return release(layout.toIndex(seatLabel));
+    }
+
+    // Holds the given seats, all or none; returns false if any is booked, held or out of range
+    public synchronized boolean hold(int[] indexes) {
+        for (int index : indexes) {
+            if (!isAvailable(index)) {
+                return false;
+            }
+        }
+        for (int index : indexes) {
+            if (!held.get(index)) {
+                holdSeat(index);
+            }
+        }
+        return true;
+    }
+
+    // Holds count free seats in seat order; returns their indexes, or an empty array if too few are free
+    public synchronized int[] holdNext(int count) {
+        return holdNext(count, null);
+    }
+
+    // Holds count free seats from the given rows in the order given (every row if rows is null);
+    // returns their indexes, or an empty array if those rows have too few free seats
+    public synchronized int[] holdNext(int count, int[] rows) {
+        if (count <= 0 || count > capacity - bookedCount - heldCount) {
+            return new int[0];
+        }
+        int[] indexes = new int[count];
+        int found = 0;
+        if (rows == null) {
+            for (int i = nextFree(0); i < capacity && found < count; i = nextFree(i + 1)) {
+                indexes[found++] = i;
+            }
+        } else {
+            for (int r = 0; r < rows.length && found < count; r++) {
+                if (rows[r] < 0 || rows[r] >= layout.getRowCount()) {
+                    continue;
+                }
+                int end = layout.getRowEnd(rows[r]);
+                for (int i = nextFree(layout.getRowStart(rows[r])); i < end && found < count; i = nextFree(i + 1)) {
+                    indexes[found++] = i;
+                }
+            }
+        }
+        if (found < count) {
+            return new int[0];
+        }
+        for (int index : indexes) {
+            holdSeat(index);
+        }
+        return indexes;
+    }
+
+    /**
+     * Holds count adjacent seats in one row, trying rows front to back and taking the
+     * leftmost block that fits. Only the given rows are considered, or every row if rows is null.
+     *
+     * @return the held seat indexes, or an empty array if no row has enough adjacent free seats
+     */
+    public synchronized int[] holdBestAvailable(int count, int[] rows) {
+        if (count <= 0 || count > capacity - bookedCount - heldCount) {
+            return new int[0];
+        }
+        ensureRunTrees();
+        int rowCount = rows != null ? rows.length : layout.getRowCount();
+        for (int i = 0; i < rowCount; i++) {
+            int row = rows != null ? rows[i] : i;
+            if (row < 0 || row >= layout.getRowCount()) {
+                continue;
+            }
+            int start = runTrees[row].findRun(count);
+            if (start < 0) {
+                continue;
+            }
+            int[] indexes = new int[count];
+            for (int j = 0; j < count; j++) {
+                indexes[j] = layout.getRowStart(row) + start + j;
+                holdSeat(indexes[j]);
+            }
+            return indexes;
+        }
+        return new int[0];
+    }
+
+    // Longest block of adjacent free seats in any row
+    public synchronized int getLongestFreeRun() {
+        ensureRunTrees();
+        int longest = 0;
+        for (FreeRunTree tree : runTrees) {
+            longest = Math.max(longest, tree.longestRun());
+        }
+        return longest;
+    }
+
+    // Ends a hold without booking the seat; returns false if the seat was not held
+    public synchronized boolean releaseHold(int index) {
+        if (index < 0 || index >= capacity || !held.get(index)) {
+            return false;
+        }
+        held.clear(index);
+        heldCount--;
+        seatChanged(index, false);
+        return true;
+    }
+
+    public boolean releaseHold(String seatLabel) {
+        return releaseHold(layout.toIndex(seatLabel));
+    }
+
+    public synchronized boolean isHeld(int index) {
+        return index >= 0 && index < capacity && held.get(index);
+    }
+
+    public boolean isHeld(String seatLabel) {
+        return isHeld(layout.toIndex(seatLabel));
+    }
+
+    // Copies holds from the inventory this one replaces, for seats that are still not booked
+    void carryHoldsFrom(SeatInventory previous) {
+        if (!layout.equals(previous.layout)) {
+            // Seat indexes mean different seats now; the holds end when their timers run out
+            return;
+        }
+        BitSet previousHolds;
+        synchronized (previous) {
+            previousHolds = (BitSet) previous.held.clone();
+        }
+        synchronized (this) {
+            previousHolds.andNot(booked);
+            for (int i = previousHolds.nextSetBit(0); i >= 0 && i < capacity; i = previousHolds.nextSetBit(i + 1)) {
+                if (!held.get(i)) {
+                    holdSeat(i);
+                }
+            }
+        }
+    }
+
+    public synchronized boolean isAvailable(int index) {
+        return index >= 0 && index < capacity && !booked.get(index) && !held.get(index);
+    }
+
+    public boolean isAvailable(String seatLabel) {
+        return isAvailable(layout.toIndex(seatLabel));
+    }
+
+    public synchronized int getBookedCount() {
+        return bookedCount;
+    }
+
+    public synchronized int getHeldCount() {
+        return heldCount;
+    }
+
+    public synchronized int getAvailableCount() {
+        return capacity - bookedCount - heldCount;
+    }
+
+    public synchronized int getAvailableCount(int section) {
+        return sectionFree[section];
+    }
+
+    // Free seats per section, in layout order
+    public synchronized Map<String, Integer> getAvailableCountBySection() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int section = 0; section < sectionFree.length; section++) {
+            counts.put(layout.getSectionName(section), sectionFree[section]);
+        }
+        return counts;
+    }
+
+    public synchronized List<String> getAvailableSeats() {
+        List<String> seats = new ArrayList<>(capacity - bookedCount - heldCount);
+        for (int i = nextFree(0); i < capacity; i = nextFree(i + 1)) {
+            seats.add(layout.toLabel(i));
+        }
+        return seats;
+    }
+
+    // Returns up to count free seats in seat order, starting from the front
+    public synchronized List<String> getNextAvailableSeats(int count) {
+        List<String> seats = new ArrayList<>(Math.max(0, Math.min(count, capacity - bookedCount - heldCount)));
+        for (int i = nextFree(0); i < capacity && seats.size() < count; i = nextFree(i + 1)) {
+            seats.add(layout.toLabel(i));
+        }
+        return seats;
+    }
+
+    // Holds a seat known to be free
+    private void holdSeat(int index) {
+        held.set(index);
+        heldCount++;
+        seatChanged(index, true);
+    }
+
+    // Updates section counts and the row tree after a seat became taken (wasFree) or free (!wasFree)
+    private void seatChanged(int index, boolean wasFree) {
+        boolean free = !booked.get(index) && !held.get(index);
+        if (free == wasFree) {
+            return;
+        }
+        int row = layout.rowOf(index);
+        sectionFree[layout.getRowSection(row)] += free ? 1 : -1;
+        if (runTrees != null) {
+            runTrees[row].setFree(index - layout.getRowStart(row), free);
+        }
+    }
+
+    private void ensureRunTrees() {
+        if (runTrees != null) {
+            return;
+        }
+        FreeRunTree[] trees = new FreeRunTree[layout.getRowCount()];
+        for (int row = 0; row < trees.length; row++) {
+            int start = layout.getRowStart(row);
+            int end = layout.getRowEnd(row);
+            trees[row] = new FreeRunTree(end - start);
+            for (int i = start; i < end; i++) {
+                if (booked.get(i) || held.get(i)) {
+                    trees[row].setFree(i - start, false);
+                }
+            }
+        }
+        runTrees = trees;
+    }
+
+    // First seat at or after from that is neither booked nor held
+    private int nextFree(int from) {
+        int i = booked.nextClearBit(from);
+        while (i < capacity && held.get(i)) {
+            i = booked.nextClearBit(i + 1);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,72 @@
+package com.etms.inventory;
+
+import com.etms.util.AppConfig;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide cache of {@link SeatInventory} instances keyed by event ID.
+ * Inventories are reloaded after {@code etms.inventory.refreshSeconds} so that
+ * bookings made by other application instances are picked up. Only one thread loads a
+ * given event at a time; the others wait for its result instead of loading it again.
+ */
+public final class SeatInventoryRegistry {
+    private static final ConcurrentMap<Integer, SeatInventory> inventories = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Integer, Object> loadLocks = new ConcurrentHashMap<>();
+    private static final long refreshNanos = TimeUnit.SECONDS.toNanos(
+            AppConfig.getLong("etms.inventory.refreshSeconds", 30));
+
+    @FunctionalInterface
+    public interface Loader {
+        SeatInventory load(int eventId) throws Exception;
+    }
+
+    private SeatInventoryRegistry() {
+    }
+
+    // Returns the event's inventory, loading it if absent or stale
+    public static SeatInventory get(int eventId, Loader loader) throws Exception {
+        SeatInventory inventory = inventories.get(eventId);
+        if (isCurrent(inventory)) {
+            return inventory;
+        }
+        synchronized (loadLocks.computeIfAbsent(eventId, id -> new Object())) {
+            // Another thread may have loaded it while this one waited
+            inventory = inventories.get(eventId);
+            if (isCurrent(inventory)) {
+                return inventory;
+            }
+            SeatInventory loaded = loader.load(eventId);
+            if (inventory != null) {
+                // Holds exist only in memory, so they survive the reload
+                loaded.carryHoldsFrom(inventory);
+            }
+            inventories.put(eventId, loaded);
+            return loaded;
+        }
+    }
+
+    // Returns the inventory only if it is already loaded
+    public static SeatInventory getIfLoaded(int eventId) {
+        return inventories.get(eventId);
+    }
+
+    // Marks the inventory for reloading on next use; it is kept until then so its holds carry over
+    public static void invalidate(int eventId) {
+        SeatInventory inventory = inventories.get(eventId);
+        if (inventory != null) {
+            inventory.markStale();
+        }
+    }
+
+    public static void clear() {
+        inventories.clear();
+        loadLocks.clear();
+    }
+
+    private static boolean isCurrent(SeatInventory inventory) {
+        return inventory != null && !inventory.isStale() && System.nanoTime() - inventory.getLoadedAt() < refreshNanos;
+    }
+}
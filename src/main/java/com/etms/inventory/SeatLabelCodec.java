@@ -0,0 +1,49 @@
+package com.etms.inventory;
+
+/**
+ * Splits and builds seat labels of the form row letters followed by a seat number ("A1",
+ * "BB12") without regular expressions or intermediate strings. Mapping labels to seat
+ * indexes is up to the {@link VenueLayout}.
+ */
+public final class SeatLabelCodec {
+    // Row of the single-row layout used by venues without a stored layout
+    public static final char ROW_PREFIX = 'A';
+
+    private SeatLabelCodec() {
+    }
+
+    public static String format(String rowLabel, int number) {
+        return rowLabel + number;
+    }
+
+    // Position of the first digit, or -1 unless the label is 1..maxRowLength letters followed by digits
+    public static int numberStart(String label, int maxRowLength) {
+        if (label == null || label.length() < 2) {
+            return -1;
+        }
+        int i = 0;
+        while (i < label.length() && Character.isLetter(label.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i > maxRowLength || i == label.length()) {
+            return -1;
+        }
+        return i;
+    }
+
+    // Parses the digits from position from to the end; -1 if they are missing, not digits or too large
+    public static int parseNumber(String text, int from) {
+        if (from >= text.length() || text.length() - from > 10) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number > Integer.MAX_VALUE ? -1 : (int) number;
+    }
+}
@@ -0,0 +1,331 @@
+package com.etms.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Seating plan of a venue: sections made of rows, each row a range of numbered seats with a
+ * seat category. Seats are numbered 0..capacity-1 in row order and everything is packed into
+ * parallel arrays indexed by row, so label parsing, seat lookups and section counts are array
+ * lookups.
+ *
+ * <p>Layouts are stored as a compact spec of {@code Section|Rows|Seats|Category} entries
+ * separated by ';'. Rows are one label ({@code K}), a single-letter range ({@code A-J}) or a
+ * comma-separated list ({@code AA,BB}); seats are an inclusive number range; the category is
+ * optional and defaults to General. For example
+ * {@code Stalls|A-J|1-20|General;Circle|K-L|1-24|VIP}. Venues without a stored layout use
+ * {@link #singleRow}, the original flat "A1".."A{capacity}" numbering.
+ */
+public final class VenueLayout {
+    public static final String DEFAULT_CATEGORY = "GENERAL";
+    private static final int MAX_ROW_LABEL_LENGTH = 3;
+    private static final ConcurrentMap<String, VenueLayout> parsed = new ConcurrentHashMap<>();
+
+    private final String spec;
+    private final int capacity;
+    // Per row; rowStarts has one extra entry holding capacity
+    private final int[] rowStarts;
+    private final int[] rowFirstNumbers;
+    private final String[] rowLabels;
+    private final int[] rowSections;
+    private final int[] rowCategories;
+    private final String[] sectionNames;
+    private final String[] categoryNames;
+    private final int[][] rowsByCategory;
+    // Row index by single-letter label, -1 if absent; longer labels go through the map
+    private final int[] rowsByLetter = new int[26];
+    private final Map<String, Integer> rowsByLabel = new HashMap<>();
+
+    private VenueLayout(String spec, List<RowSpec> rows, List<String> sections, List<String> categories) {
+        this.spec = spec;
+        int count = rows.size();
+        this.rowStarts = new int[count + 1];
+        this.rowFirstNumbers = new int[count];
+        this.rowLabels = new String[count];
+        this.rowSections = new int[count];
+        this.rowCategories = new int[count];
+        Arrays.fill(rowsByLetter, -1);
+        int seat = 0;
+        for (int row = 0; row < count; row++) {
+            RowSpec rowSpec = rows.get(row);
+            rowStarts[row] = seat;
+            rowFirstNumbers[row] = rowSpec.firstNumber;
+            rowLabels[row] = rowSpec.label;
+            rowSections[row] = rowSpec.section;
+            rowCategories[row] = rowSpec.category;
+            if (rowSpec.label.length() == 1) {
+                rowsByLetter[rowSpec.label.charAt(0) - 'A'] = row;
+            }
+            rowsByLabel.put(rowSpec.label, row);
+            seat = Math.addExact(seat, rowSpec.lastNumber - rowSpec.firstNumber + 1);
+        }
+        rowStarts[count] = seat;
+        this.capacity = seat;
+        this.sectionNames = sections.toArray(new String[0]);
+        this.categoryNames = categories.toArray(new String[0]);
+        this.rowsByCategory = new int[categoryNames.length][];
+        for (int category = 0; category < categoryNames.length; category++) {
+            int matching = 0;
+            for (int row = 0; row < count; row++) {
+                if (rowCategories[row] == category) {
+                    matching++;
+                }
+            }
+            int[] categoryRows = new int[matching];
+            matching = 0;
+            for (int row = 0; row < count; row++) {
+                if (rowCategories[row] == category) {
+                    categoryRows[matching++] = row;
+                }
+            }
+            rowsByCategory[category] = categoryRows;
+        }
+    }
+
+    private static final class RowSpec {
+        final String label;
+        final int firstNumber;
+        final int lastNumber;
+        final int section;
+        final int category;
+
+        RowSpec(String label, int firstNumber, int lastNumber, int section, int category) {
+            this.label = label;
+            this.firstNumber = firstNumber;
+            this.lastNumber = lastNumber;
+            this.section = section;
+            this.category = category;
+        }
+    }
+
+    // One row "A" numbered 1..capacity, for venues without a stored layout
+    public static VenueLayout singleRow(int capacity) {
+        if (capacity <= 0) {
+            return of("General|A|1-0|" + DEFAULT_CATEGORY);
+        }
+        return of("General|" + SeatLabelCodec.ROW_PREFIX + "|1-" + capacity + "|" + DEFAULT_CATEGORY);
+    }
+
+    // Parses a layout spec; parsed layouts are shared, since they are immutable
+    public static VenueLayout of(String spec) {
+        VenueLayout layout = parsed.get(spec);
+        if (layout == null) {
+            layout = parse(spec);
+            parsed.putIfAbsent(spec, layout);
+        }
+        return layout;
+    }
+
+    private static VenueLayout parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("Venue layout is empty");
+        }
+        List<RowSpec> rows = new ArrayList<>();
+        Map<String, Integer> sections = new LinkedHashMap<>();
+        Map<String, Integer> categories = new LinkedHashMap<>();
+        Map<String, Boolean> seenRows = new HashMap<>();
+        for (String entry : spec.split(";")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = entry.split("\\|");
+            if (parts.length < 3 || parts.length > 4) {
+                throw new IllegalArgumentException("Expected Section|Rows|Seats|Category: " + entry);
+            }
+            String sectionName = parts[0].trim();
+            if (sectionName.isEmpty()) {
+                throw new IllegalArgumentException("Section name is missing: " + entry);
+            }
+            int section = sections.computeIfAbsent(sectionName, name -> sections.size());
+            String categoryName = parts.length == 4 && !parts[3].trim().isEmpty()
+                    ? parts[3].trim().toUpperCase(Locale.ROOT) : DEFAULT_CATEGORY;
+            int category = categories.computeIfAbsent(categoryName, name -> categories.size());
+            int[] seats = parseRange(parts[2].trim(), entry);
+            for (String label : parseRows(parts[1].trim(), entry)) {
+                if (seenRows.put(label, Boolean.TRUE) != null) {
+                    throw new IllegalArgumentException("Row " + label + " is listed more than once");
+                }
+                rows.add(new RowSpec(label, seats[0], seats[1], section, category));
+            }
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Venue layout has no rows");
+        }
+        return new VenueLayout(spec, rows, new ArrayList<>(sections.keySet()),
+                new ArrayList<>(categories.keySet()));
+    }
+
+    private static List<String> parseRows(String rows, String entry) {
+        List<String> labels = new ArrayList<>();
+        int dash = rows.indexOf('-');
+        if (dash > 0) {
+            String from = rows.substring(0, dash).trim().toUpperCase(Locale.ROOT);
+            String to = rows.substring(dash + 1).trim().toUpperCase(Locale.ROOT);
+            if (from.length() != 1 || to.length() != 1 || !isRowLetter(from.charAt(0))
+                    || !isRowLetter(to.charAt(0)) || from.charAt(0) > to.charAt(0)) {
+                throw new IllegalArgumentException("Row ranges must run between single letters: " + entry);
+            }
+            for (char c = from.charAt(0); c <= to.charAt(0); c++) {
+                labels.add(String.valueOf(c));
+            }
+            return labels;
+        }
+        for (String label : rows.split(",")) {
+            String row = label.trim().toUpperCase(Locale.ROOT);
+            if (row.isEmpty() || row.length() > MAX_ROW_LABEL_LENGTH) {
+                throw new IllegalArgumentException("Row labels must be 1-" + MAX_ROW_LABEL_LENGTH
+                        + " letters: " + entry);
+            }
+            for (int i = 0; i < row.length(); i++) {
+                if (!isRowLetter(row.charAt(i))) {
+                    throw new IllegalArgumentException("Row labels must be letters: " + entry);
+                }
+            }
+            labels.add(row);
+        }
+        return labels;
+    }
+
+    private static int[] parseRange(String range, String entry) {
+        int dash = range.indexOf('-');
+        if (dash <= 0) {
+            throw new IllegalArgumentException("Seats must be a range such as 1-20: " + entry);
+        }
+        int first = SeatLabelCodec.parseNumber(range.substring(0, dash).trim(), 0);
+        int last = SeatLabelCodec.parseNumber(range.substring(dash + 1).trim(), 0);
+        if (first < 1 || last < 0 || last < first - 1) {
+            throw new IllegalArgumentException("Invalid seat range: " + entry);
+        }
+        return new int[] { first, last };
+    }
+
+    private static boolean isRowLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    public String getSpec() {
+        return spec;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getRowCount() {
+        return rowLabels.length;
+    }
+
+    public int getRowStart(int row) {
+        return rowStarts[row];
+    }
+
+    public int getRowEnd(int row) {
+        return rowStarts[row + 1];
+    }
+
+    public String getRowLabel(int row) {
+        return rowLabels[row];
+    }
+
+    public int getRowSection(int row) {
+        return rowSections[row];
+    }
+
+    public int getSectionCount() {
+        return sectionNames.length;
+    }
+
+    public String getSectionName(int section) {
+        return sectionNames[section];
+    }
+
+    public String getRowCategory(int row) {
+        return categoryNames[rowCategories[row]];
+    }
+
+    // Rows of the category front to back, or an empty array if the layout has none
+    public int[] getRowsInCategory(String category) {
+        String name = category.toUpperCase(Locale.ROOT);
+        for (int i = 0; i < categoryNames.length; i++) {
+            if (categoryNames[i].equals(name)) {
+                return rowsByCategory[i].clone();
+            }
+        }
+        return new int[0];
+    }
+
+    // Row containing the seat index
+    public int rowOf(int index) {
+        int low = 0;
+        int high = rowLabels.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (rowStarts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public int sectionOf(int index) {
+        return rowSections[rowOf(index)];
+    }
+
+    public String toLabel(int index) {
+        int row = rowOf(index);
+        return SeatLabelCodec.format(rowLabels[row], rowFirstNumbers[row] + index - rowStarts[row]);
+    }
+
+    // Returns the seat index for a label, or -1 if the layout has no such seat
+    public int toIndex(String label) {
+        int numberStart = SeatLabelCodec.numberStart(label, MAX_ROW_LABEL_LENGTH);
+        if (numberStart < 0) {
+            return -1;
+        }
+        int row;
+        if (numberStart == 1) {
+            char letter = Character.toUpperCase(label.charAt(0));
+            row = isRowLetter(letter) ? rowsByLetter[letter - 'A'] : -1;
+        } else {
+            Integer found = rowsByLabel.get(label.substring(0, numberStart).toUpperCase(Locale.ROOT));
+            row = found != null ? found : -1;
+        }
+        if (row < 0) {
+            return -1;
+        }
+        int number = SeatLabelCodec.parseNumber(label, numberStart);
+        int offset = number - rowFirstNumbers[row];
+        if (number < 0 || offset < 0 || offset >= rowStarts[row + 1] - rowStarts[row]) {
+            return -1;
+        }
+        return rowStarts[row] + offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof VenueLayout && spec.equals(((VenueLayout) o).spec));
+    }
+
+    @Override
+    public int hashCode() {
+        return spec.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "VenueLayout{" +
+                "sections=" + sectionNames.length +
+                ", rows=" + rowLabels.length +
+                ", capacity=" + capacity +
+                '}';
+    }
+}
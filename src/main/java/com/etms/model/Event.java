@@ -13,6 +13,10 @@ public class Event {
     private BigDecimal ticketPrice;
     private EventType eventType;
     private int venueId;
+    private int durationMinutes = DEFAULT_DURATION_MINUTES;
+
+    // Length assumed for events created before durations were recorded
+    public static final int DEFAULT_DURATION_MINUTES = 120;
 
     public enum EventType {
         Concert, 
@@ -35,6 +39,13 @@ public class Event {
         this.venueId = venueId;
     }
 
+    // Copy constructor, used by caches that hand out their own snapshots
+    public Event(Event other) {
+        this(other.eventId, other.eventName, other.description, other.date, other.time,
+                other.ticketPrice, other.eventType, other.venueId);
+        this.durationMinutes = other.durationMinutes;
+    }
+
     // Getters and Setters
     public int getEventId() {
         return eventId;
@@ -100,6 +111,14 @@ public class Event {
         this.venueId = venueId;
     }
 
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(int durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
     @Override
     public String toString() {
         return "Event{" +
@@ -111,6 +130,7 @@ public class Event {
                 ", ticketPrice=" + ticketPrice +
                 ", eventType=" + eventType +
                 ", venueId=" + venueId +
+                ", durationMinutes=" + durationMinutes +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.etms.model;
+
+import java.util.Arrays;
+
+/**
+ * Review statistics for one event: number of reviews, rating total and a 1-5 star histogram.
+ */
+public class RatingSummary {
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 5;
+
+    private final int eventId;
+    private final int reviewCount;
+    private final long ratingSum;
+    private final int[] histogram;
+
+    public RatingSummary(int eventId, int reviewCount, long ratingSum, int[] histogram) {
+        this.eventId = eventId;
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum;
+        this.histogram = Arrays.copyOf(histogram, MAX_RATING);
+    }
+
+    public static RatingSummary empty(int eventId) {
+        return new RatingSummary(eventId, 0, 0, new int[MAX_RATING]);
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public double getAverageRating() {
+        return reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+    }
+
+    // Number of reviews with the given star rating (1-5)
+    public int getCount(int stars) {
+        return stars < MIN_RATING || stars > MAX_RATING ? 0 : histogram[stars - 1];
+    }
+
+    @Override
+    public String toString() {
+        return "RatingSummary{" +
+                "eventId=" + eventId +
+                ", reviewCount=" + reviewCount +
+                ", average=" + String.format("%.2f", getAverageRating()) +
+                ", histogram=" + Arrays.toString(histogram) +
+                '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.etms.model;
+
+public class TicketDetail extends Ticket {
+    private String eventName;
+    private String customerName;
+
+    public TicketDetail() {
+        super();
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public void setEventName(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
+    @Override
+    public String toString() {
+        return "TicketDetail{" +
+                "ticketId=" + getTicketId() +
+                ", eventName='" + eventName + '\'' +
+                ", customerName='" + customerName + '\'' +
+                ", seatNumber='" + getSeatNumber() + '\'' +
+                ", price=" + getPrice() +
+                ", ticketType=" + getTicketType() +
+                '}';
+    }
+}
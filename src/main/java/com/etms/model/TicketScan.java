@@ -0,0 +1,63 @@
+package com.etms.model;
+
+import java.time.LocalDateTime;
+
+public class TicketScan {
+    private int ticketId;
+    private int eventId;
+    private String gate;
+    private LocalDateTime scannedAt;
+
+    public TicketScan() {
+    }
+
+    public TicketScan(int ticketId, int eventId, String gate, LocalDateTime scannedAt) {
+        this.ticketId = ticketId;
+        this.eventId = eventId;
+        this.gate = gate;
+        this.scannedAt = scannedAt;
+    }
+
+    // Getters and Setters
+    public int getTicketId() {
+        return ticketId;
+    }
+
+    public void setTicketId(int ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(int eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getGate() {
+        return gate;
+    }
+
+    public void setGate(String gate) {
+        this.gate = gate;
+    }
+
+    public LocalDateTime getScannedAt() {
+        return scannedAt;
+    }
+
+    public void setScannedAt(LocalDateTime scannedAt) {
+        this.scannedAt = scannedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "TicketScan{" +
+                "ticketId=" + ticketId +
+                ", eventId=" + eventId +
+                ", gate='" + gate + '\'' +
+                ", scannedAt=" + scannedAt +
+                '}';
+    }
+}
@@ -1,11 +1,15 @@
 package com.etms.ui;
 
 import com.etms.controller.EventController;
+import com.etms.controller.MetricsController;
 import com.etms.controller.TicketController;
 import com.etms.controller.UserController;
 import com.etms.model.Event;
 import com.etms.model.Ticket;
+import com.etms.model.TicketDetail;
 import com.etms.model.User;
+import com.etms.util.LatencyHistogram;
+import com.etms.util.QueryMetrics;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -16,6 +20,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class AdminDashboard extends JFrame {
     private User currentUser;
@@ -28,12 +34,17 @@ public class AdminDashboard extends JFrame {
     private EventController eventController;
     private TicketController ticketController;
     private UserController userController;
+    private MetricsController metricsController;
+    private DefaultTableModel queryTableModel;
+    private JTextArea systemStatsArea;
+    private LoadingPanel loadingPanel;
 
     public AdminDashboard(User user) {
         this.currentUser = user;
         this.eventController = new EventController();
         this.ticketController = new TicketController();
         this.userController = new UserController();
+        this.metricsController = new MetricsController();
         initializeUI();
         loadData();
     }
@@ -72,6 +83,15 @@ public class AdminDashboard extends JFrame {
         JPanel usersPanel = createUsersPanel();
         tabbedPane.addTab("Users", usersPanel);
 
+        // Metrics tab
+        JPanel metricsPanel = createMetricsPanel();
+        tabbedPane.addTab("Metrics", metricsPanel);
+        tabbedPane.addChangeListener(e -> {
+            if (tabbedPane.getSelectedComponent() == metricsPanel) {
+                refreshMetrics();
+            }
+        });
+
         // Add tabbed pane to main panel
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
 
@@ -90,6 +110,10 @@ public class AdminDashboard extends JFrame {
         welcomeLabel.setForeground(Color.WHITE);
         panel.add(welcomeLabel, BorderLayout.WEST);
 
+        // Create loading indicator shown while tables load in the background
+        loadingPanel = new LoadingPanel(Color.WHITE);
+        panel.add(loadingPanel, BorderLayout.CENTER);
+
         // Create logout button with new color scheme
         JButton logoutButton = new JButton("Logout");
         logoutButton.setFont(new Font("Arial", Font.BOLD, 14));
@@ -259,13 +283,100 @@ public class AdminDashboard extends JFrame {
         return panel;
     }
 
+    private JPanel createMetricsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.setBackground(Color.WHITE);
+
+        // One row per SQL statement, latencies in milliseconds
+        String[] columns = { "SQL", "Calls", "Errors", "Rows", "Mean ms", "p50 ms", "p95 ms", "p99 ms", "Max ms" };
+        queryTableModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            // Typed columns so the row sorter orders numbers numerically
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : column <= 3 ? Long.class : Double.class;
+            }
+        };
+
+        JTable queryTable = new JTable(queryTableModel);
+        queryTable.setFont(new Font("Arial", Font.PLAIN, 12));
+        queryTable.setRowHeight(22);
+        queryTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 14));
+        queryTable.getTableHeader().setBackground(new Color(70, 130, 180));
+        queryTable.getTableHeader().setForeground(Color.WHITE);
+        queryTable.getColumnModel().getColumn(0).setPreferredWidth(500);
+        queryTable.setAutoCreateRowSorter(true);
+        JScrollPane scrollPane = new JScrollPane(queryTable);
+
+        systemStatsArea = new JTextArea(10, 80);
+        systemStatsArea.setEditable(false);
+        systemStatsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        // Create button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        buttonPanel.setBackground(Color.WHITE);
+
+        JButton refreshButton = createStyledButton("Refresh", "🔄");
+        JButton resetButton = createStyledButton("Reset Query Stats", "🧹");
+
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(resetButton);
+
+        refreshButton.addActionListener(e -> refreshMetrics());
+        resetButton.addActionListener(e -> {
+            metricsController.resetQueryStats();
+            refreshMetrics();
+        });
+
+        panel.add(buttonPanel, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(new JScrollPane(systemStatsArea), BorderLayout.SOUTH);
+
+        return panel;
+    }
+
+    // Metrics are all in memory, so they are read on the event thread
+    private void refreshMetrics() {
+        queryTableModel.setRowCount(0);
+        for (QueryMetrics.StatementStats stats : metricsController.getQueryStats()) {
+            LatencyHistogram latency = stats.getLatency();
+            queryTableModel.addRow(new Object[] {
+                    stats.getSql(),
+                    stats.getCalls(),
+                    stats.getErrors(),
+                    stats.getRows(),
+                    roundMillis(latency.getMeanMillis()),
+                    roundMillis(latency.getPercentileMillis(50)),
+                    roundMillis(latency.getPercentileMillis(95)),
+                    roundMillis(latency.getPercentileMillis(99)),
+                    roundMillis(latency.getMaxMillis())
+            });
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> entry : metricsController.getSystemStats().entrySet()) {
+            text.append(String.format("%-24s %s%n", entry.getKey() + ":", entry.getValue()));
+        }
+        systemStatsArea.setText(text.toString());
+        systemStatsArea.setCaretPosition(0);
+    }
+
+    private static double roundMillis(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+
     private void loadData() {
-        try {
-            // Load events
-            List<Event> events = eventController.getAllEvents();
-            eventTableModel.setRowCount(0);
-            for (Event event : events) {
-                eventTableModel.addRow(new Object[] {
+        loadingPanel.cancelAll();
+
+        // Load events
+        loadingPanel.start("events", eventTableModel, sink -> {
+            for (Event event : eventController.getAllEvents()) {
+                sink.accept(new Object[] {
                         event.getEventId(),
                         event.getEventName(),
                         event.getDate(),
@@ -276,15 +387,26 @@ public class AdminDashboard extends JFrame {
                         event.getTicketPrice()
                 });
             }
+        });
 
-            // Load tickets
-            loadTicketData();
+        // Load tickets, streamed so rows appear while the query is still running
+        loadingPanel.start("tickets", ticketTableModel, sink -> {
+            try (Stream<TicketDetail> tickets = ticketController.streamTicketDetails()) {
+                tickets.forEach(ticket -> sink.accept(new Object[] {
+                        ticket.getTicketId(),
+                        ticket.getEventName() != null ? ticket.getEventName() : "Unknown Event",
+                        ticket.getCustomerName() != null ? ticket.getCustomerName() : "Unknown Customer",
+                        ticket.getSeatNumber(),
+                        ticket.getPrice(),
+                        ticket.getTicketType()
+                }));
+            }
+        });
 
-            // Load users
-            List<User> users = userController.getAllUsers();
-            userTableModel.setRowCount(0);
-            for (User user : users) {
-                userTableModel.addRow(new Object[] {
+        // Load users
+        loadingPanel.start("users", userTableModel, sink -> {
+            for (User user : userController.getAllUsers()) {
+                sink.accept(new Object[] {
                         user.getUserId(),
                         user.getName(),
                         user.getEmail(),
@@ -292,48 +414,19 @@ public class AdminDashboard extends JFrame {
                         user.getUserType()
                 });
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading data: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
-    private void loadTicketData() {
-        try {
-            List<Ticket> tickets = ticketController.getAllTickets();
-            ticketTableModel.setRowCount(0);
-
-            for (Ticket ticket : tickets) {
-                Event event = eventController.getEventById(ticket.getEventId());
-                User customer = userController.getUserById(ticket.getUserId());
-
-                String eventName = event != null ? event.getEventName() : "Unknown Event";
-                String customerName = customer != null ? customer.getName() : "Unknown Customer";
-
-                Object[] rowData = {
-                        ticket.getTicketId(),
-                        eventName,
-                        customerName,
-                        ticket.getSeatNumber(),
-                        ticket.getPrice(),
-                        ticket.getTicketType()
-                };
-                ticketTableModel.addRow(rowData);
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading tickets: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+    @Override
+    public void dispose() {
+        loadingPanel.cancelAll();
+        super.dispose();
     }
 
     private void showAddEventDialog() {
         JDialog dialog = new JDialog(this, "Add Event", true);
         dialog.setLayout(new BorderLayout());
-        dialog.setSize(400, 300);
+        dialog.setSize(400, 340);
         dialog.setLocationRelativeTo(this);
 
         JPanel formPanel = new JPanel(new GridBagLayout());
@@ -347,6 +440,7 @@ public class AdminDashboard extends JFrame {
         JTextField timeField = new JTextField(20);
         JTextField venueField = new JTextField(20);
         JTextField priceField = new JTextField(20);
+        JTextField durationField = new JTextField(String.valueOf(Event.DEFAULT_DURATION_MINUTES), 20);
         JComboBox<Event.EventType> typeCombo = new JComboBox<>(Event.EventType.values());
 
         gbc.gridx = 0;
@@ -385,6 +479,12 @@ public class AdminDashboard extends JFrame {
         gbc.gridx = 1;
         formPanel.add(typeCombo, gbc);
 
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        formPanel.add(new JLabel("Duration (minutes):"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(durationField, gbc);
+
         JPanel buttonPanel = new JPanel();
         JButton saveButton = new JButton("Save");
         JButton cancelButton = new JButton("Cancel");
@@ -398,6 +498,7 @@ public class AdminDashboard extends JFrame {
                 event.setVenueId(Integer.parseInt(venueField.getText()));
                 event.setTicketPrice(new BigDecimal(priceField.getText()));
                 event.setEventType((Event.EventType) typeCombo.getSelectedItem());
+                event.setDurationMinutes(Integer.parseInt(durationField.getText().trim()));
 
                 eventController.createEvent(event);
                 loadData();
@@ -444,7 +545,7 @@ public class AdminDashboard extends JFrame {
     private void showEditEventDialog(Event event) {
         JDialog dialog = new JDialog(this, "Edit Event", true);
         dialog.setLayout(new BorderLayout());
-        dialog.setSize(400, 300);
+        dialog.setSize(400, 340);
         dialog.setLocationRelativeTo(this);
 
         JPanel formPanel = new JPanel(new GridBagLayout());
@@ -458,6 +559,7 @@ public class AdminDashboard extends JFrame {
         JTextField timeField = new JTextField(event.getTime().toString(), 20);
         JTextField venueField = new JTextField(String.valueOf(event.getVenueId()), 20);
         JTextField priceField = new JTextField(event.getTicketPrice().toString(), 20);
+        JTextField durationField = new JTextField(String.valueOf(event.getDurationMinutes()), 20);
         JComboBox<Event.EventType> typeCombo = new JComboBox<>(Event.EventType.values());
         typeCombo.setSelectedItem(event.getEventType());
 
@@ -497,6 +599,12 @@ public class AdminDashboard extends JFrame {
         gbc.gridx = 1;
         formPanel.add(typeCombo, gbc);
 
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        formPanel.add(new JLabel("Duration (minutes):"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(durationField, gbc);
+
         JPanel buttonPanel = new JPanel();
         JButton saveButton = new JButton("Save");
         JButton cancelButton = new JButton("Cancel");
@@ -509,6 +617,7 @@ public class AdminDashboard extends JFrame {
                 event.setVenueId(Integer.parseInt(venueField.getText()));
                 event.setTicketPrice(new BigDecimal(priceField.getText()));
                 event.setEventType((Event.EventType) typeCombo.getSelectedItem());
+                event.setDurationMinutes(Integer.parseInt(durationField.getText().trim()));
 
                 eventController.updateEvent(event);
                 loadData();
@@ -1,5 +1,6 @@
 package com.etms.ui;
 
+import com.etms.controller.CheckInController;
 import com.etms.controller.EventController;
 import com.etms.controller.PaymentController;
 import com.etms.controller.TicketController;
@@ -7,12 +8,17 @@ import com.etms.controller.UserController;
 import com.etms.exception.ETMSException;
 import com.etms.exception.AuthenticationException;
 import com.etms.exception.ValidationException;
+import com.etms.inventory.SeatHold;
 import com.etms.model.Event;
 import com.etms.model.Payment;
 import com.etms.model.Ticket;
 import com.etms.model.User;
+import com.etms.util.AdmissionQueue;
+import com.etms.util.BatchLoader;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 
 import java.awt.*;
@@ -20,13 +26,16 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 public class CustomerDashboard extends JFrame {
     private final User currentUser;
     private final EventController eventController;
     private final TicketController ticketController;
+    private final CheckInController checkInController;
     private final PaymentController paymentController;
 
     private JTable eventTable;
@@ -41,12 +50,17 @@ public class CustomerDashboard extends JFrame {
     private JPanel eventsPanel;
     private JPanel ticketsPanel;
     private JPanel paymentsPanel;
+    private LoadingPanel loadingPanel;
+    private JTextField searchField;
+    private Timer searchTimer;
+    private TableLoader eventsLoader;
 
 
     public CustomerDashboard(User user) {
         this.currentUser = user;
         this.eventController = new EventController();
         this.ticketController = new TicketController();
+        this.checkInController = new CheckInController();
         this.paymentController = new PaymentController();
 
         initializeUI();
@@ -110,6 +124,10 @@ public class CustomerDashboard extends JFrame {
         welcomeLabel.setForeground(Color.WHITE);
         panel.add(welcomeLabel, BorderLayout.WEST);
 
+        // Create loading indicator shown while tables load in the background
+        loadingPanel = new LoadingPanel(Color.WHITE);
+        panel.add(loadingPanel, BorderLayout.CENTER);
+
         // Create logout button with new color scheme
         JButton logoutButton = new JButton("Logout");
         logoutButton.setFont(new Font("Arial", Font.BOLD, 14));
@@ -249,6 +267,34 @@ public class CustomerDashboard extends JFrame {
         eventTable.getColumnModel().getColumn(6).setPreferredWidth(100); // Type
         eventTable.getColumnModel().getColumn(7).setPreferredWidth(100); // Price
 
+        // Search box; results refresh shortly after the user stops typing
+        JPanel searchPanel = new JPanel(new BorderLayout(10, 0));
+        searchPanel.setBackground(Color.WHITE);
+        searchPanel.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchField = new JTextField();
+        searchField.setFont(new Font("Arial", Font.PLAIN, 14));
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        panel.add(searchPanel, BorderLayout.NORTH);
+
+        searchTimer = new Timer(150, e -> loadEvents());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+
         // Create scroll pane
         JScrollPane scrollPane = new JScrollPane(eventTable);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -382,70 +428,83 @@ public class CustomerDashboard extends JFrame {
 
     
     private void loadData() {
-        try {
-            // Show loading indicator
-            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        loadingPanel.cancelAll();
+        int userId = currentUser.getUserId();
 
-            // Load events
-            List<Event> events = eventController.getUpcomingEvents();
-            if (events.isEmpty()) {
-                events = eventController.getAllEvents();
-            }
-            eventTableModel.setRowCount(0);
-            for (Event event : events) {
-                Object[] rowData = {
-                        event.getEventId(),
-                        event.getEventName(),
-                        event.getDate(),
-                                event.getTime(),
-                        event.getDescription(),
-                        event.getEventType(),
-                        event.getTicketPrice()
-                };
-                eventTableModel.addRow(rowData);
-            }
+        loadEvents();
 
-            // Load tickets
-            List<Ticket> tickets = ticketController.getTicketsByUserId(currentUser.getUserId());
-            ticketTableModel.setRowCount(0);
+        // Load tickets
+        loadingPanel.start("tickets", ticketTableModel, sink -> {
             LocalDate today = LocalDate.now();
-
+            List<Ticket> tickets = ticketController.getTicketsByUserId(userId);
+            // Queue every ticket's event, then fetch them all in one bulk lookup
+            BatchLoader<Event> events = eventController.createEventLoader();
+            List<CompletableFuture<Event>> ticketEvents = new ArrayList<>(tickets.size());
             for (Ticket ticket : tickets) {
-                Event event = eventController.getEventById(ticket.getEventId());
+                ticketEvents.add(events.load(ticket.getEventId()));
+            }
+            events.dispatch();
+            for (int i = 0; i < tickets.size(); i++) {
+                Ticket ticket = tickets.get(i);
+                Event event = ticketEvents.get(i).get();
                 String status = event != null && event.getDate().isAfter(today) ? "Upcoming" : "Past";
-
-                Object[] rowData = {
+                sink.accept(new Object[] {
                         ticket.getTicketId(),
                         event != null ? event.getEventName() : "Unknown Event",
-                                ticket.getSeatNumber(),
-                                ticket.getTicketType(),
+                        ticket.getSeatNumber(),
+                        ticket.getTicketType(),
                         ticket.getPrice(),
                         status
-                };
-                ticketTableModel.addRow(rowData);
+                });
             }
+        });
 
-            // Load payments
-            List<Payment> payments = paymentController.getPaymentsByUserId(currentUser.getUserId());
-            paymentTableModel.setRowCount(0);
-            for (Payment payment : payments) {
-                paymentTableModel.addRow(new Object[] {
+        // Load payments
+        loadingPanel.start("payments", paymentTableModel, sink -> {
+            for (Payment payment : paymentController.getPaymentsByUserId(userId)) {
+                sink.accept(new Object[] {
                         payment.getPaymentId(),
                         payment.getAmount(),
                         payment.getStatus().toString(),
                         payment.getTransactionDate()
                 });
             }
+        });
+    }
 
-            // Reset cursor
-            setCursor(Cursor.getDefaultCursor());
-        } catch (ETMSException e) {
-            setCursor(Cursor.getDefaultCursor());
-            JOptionPane.showMessageDialog(this,
-                    "Error loading data: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+    // Loads upcoming events, or the search results when the search box has text
+    private void loadEvents() {
+        loadingPanel.cancel(eventsLoader);
+        String query = searchField.getText().trim();
+        eventsLoader = loadingPanel.start("events", eventTableModel, sink -> {
+            List<Event> events;
+            if (!query.isEmpty()) {
+                events = eventController.searchEvents(query);
+            } else {
+                events = eventController.getUpcomingEvents();
+                if (events.isEmpty()) {
+                    events = eventController.getAllEvents();
+                }
+            }
+            for (Event event : events) {
+                sink.accept(new Object[] {
+                        event.getEventId(),
+                        event.getEventName(),
+                        event.getDate(),
+                        event.getTime(),
+                        event.getDescription(),
+                        event.getEventType(),
+                        event.getTicketPrice()
+                });
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        searchTimer.stop();
+        loadingPanel.cancelAll();
+        super.dispose();
     }
 
 
@@ -648,9 +707,14 @@ public class CustomerDashboard extends JFrame {
 
         try {
             Event event = eventController.getEventById(eventId);
-            if (event != null) {
-                // Show booking dialog
-                showBookingDialog(event);
+            if (event != null && waitForAdmission()) {
+                try {
+                    // Show booking dialog
+                    showBookingDialog(event);
+                } finally {
+                    // Free the booking slot for the next customer in line
+                    ticketController.leaveWaitingRoom(currentUser.getUserId());
+                }
             }
         } catch (ETMSException e) {
             JOptionPane.showMessageDialog(this,
@@ -660,6 +724,54 @@ public class CustomerDashboard extends JFrame {
         }
     }
 
+    /**
+     * Joins the booking waiting room and, while bookings are busy, shows the customer's place
+     * in line until they are admitted. Returns false if the customer leaves the queue.
+     */
+    private boolean waitForAdmission() {
+        if (!TicketController.isWaitingRoomEnabled()) {
+            return true;
+        }
+        int userId = currentUser.getUserId();
+        AdmissionQueue.Status status = ticketController.enterWaitingRoom(userId);
+        if (status.isAdmitted()) {
+            return true;
+        }
+
+        JOptionPane pane = new JOptionPane(waitingRoomMessage(status), JOptionPane.INFORMATION_MESSAGE,
+                JOptionPane.DEFAULT_OPTION, null, new Object[] { "Leave Queue" });
+        JDialog dialog = pane.createDialog(this, "Waiting Room");
+        boolean[] admitted = new boolean[1];
+        // Polling also tells the queue the customer is still waiting
+        Timer pollTimer = new Timer(2000, e -> {
+            AdmissionQueue.Status current = ticketController.getWaitingRoomStatus(userId);
+            if (current == null) {
+                current = ticketController.enterWaitingRoom(userId);
+            }
+            if (current.isAdmitted()) {
+                admitted[0] = true;
+                dialog.dispose();
+            } else {
+                pane.setMessage(waitingRoomMessage(current));
+            }
+        });
+        pollTimer.start();
+        dialog.setVisible(true);
+        pollTimer.stop();
+
+        if (!admitted[0]) {
+            ticketController.leaveWaitingRoom(userId);
+        }
+        return admitted[0];
+    }
+
+    private String waitingRoomMessage(AdmissionQueue.Status status) {
+        return "Booking is very busy right now.\n"
+                + "You are number " + status.getPosition() + " in line, about "
+                + Math.max(1, status.getEstimatedWaitSeconds()) + " seconds to go.\n"
+                + "Please keep this window open.";
+    }
+
 
     private void showBookingDialog(Event event) {
         // This is a simplified booking dialog
@@ -683,7 +795,7 @@ public class CustomerDashboard extends JFrame {
 
         gbc.gridx = 0;
         gbc.gridy = 1;
-        panel.add(new JLabel("Seat Number:"), gbc);
+        panel.add(new JLabel("Seat Number(s) (blank = best available):"), gbc);
 
         gbc.gridx = 1;
         panel.add(seatNumberField, gbc);
@@ -702,43 +814,88 @@ public class CustomerDashboard extends JFrame {
 
         if (result == JOptionPane.OK_OPTION) {
             try {
-                // Validate inputs
-                if (seatNumberField.getText().trim().isEmpty()) {
-                    throw new ValidationException("Please enter a seat number");
-                }
-
                 String ticketType = (String) ticketTypeComboBox.getSelectedItem();
-                String seatNumber = seatNumberField.getText().trim();
-                int quantity = Integer.parseInt(quantityField.getText());
+                int quantity = Integer.parseInt(quantityField.getText().trim());
 
                 if (quantity <= 0) {
                     throw new ValidationException("Quantity must be greater than 0");
                 }
 
-                // Create ticket
-                Ticket ticket = new Ticket();
-                ticket.setUserId(currentUser.getUserId());
-                ticket.setEventId(event.getEventId());
-                ticket.setSeatNumber(seatNumber);
-                ticket.setTicketType(Ticket.TicketType.valueOf(ticketType));
-                ticket.setPrice(event.getTicketPrice());
-                ticket.setBookingDate(LocalDateTime.now());
+                // Seats may be listed comma-separated; left blank, the best adjacent seats are picked
+                List<String> seatNumbers = new ArrayList<>();
+                for (String seat : seatNumberField.getText().split(",")) {
+                    if (!seat.trim().isEmpty()) {
+                        seatNumbers.add(seat.trim().toUpperCase());
+                    }
+                }
+                if (seatNumbers.size() > quantity) {
+                    throw new ValidationException("More seats entered than the requested quantity");
+                }
+                Ticket.TicketType type = Ticket.TicketType.valueOf(ticketType);
+                SeatHold hold;
+                if (seatNumbers.isEmpty()) {
+                    // Hold the seats so nobody else can take them while the customer confirms
+                    hold = ticketController.holdBestAvailable(currentUser.getUserId(), event.getEventId(),
+                            quantity, type, TicketController.getDefaultHoldSeconds());
+                } else {
+                    // Any seats not entered are filled with the next free ones
+                    if (seatNumbers.size() < quantity) {
+                        for (String seat : ticketController.getNextAvailableSeats(event.getEventId(),
+                                quantity + seatNumbers.size())) {
+                            if (seatNumbers.size() == quantity) {
+                                break;
+                            }
+                            if (!seatNumbers.contains(seat)) {
+                                seatNumbers.add(seat);
+                            }
+                        }
+                        if (seatNumbers.size() < quantity) {
+                            throw new ValidationException("Not enough seats available");
+                        }
+                    }
+                    hold = ticketController.holdSeats(currentUser.getUserId(), event.getEventId(),
+                            seatNumbers, TicketController.getDefaultHoldSeconds());
+                }
+                seatNumbers = hold.getSeats();
+                java.math.BigDecimal total = event.getTicketPrice().multiply(java.math.BigDecimal.valueOf(quantity));
+                int confirm = JOptionPane.showConfirmDialog(this,
+                        "Seats " + String.join(", ", seatNumbers) + " are held for you for "
+                                + Math.max(1, hold.getRemainingSeconds() / 60) + " minutes.\n"
+                                + (hold.isAdjacent() ? "" : "These seats are not all together.\n")
+                                + "Confirm payment of $" + total + "?",
+                        "Confirm Booking",
+                        JOptionPane.YES_NO_OPTION);
+                if (confirm != JOptionPane.YES_OPTION) {
+                    ticketController.releaseHold(hold.getHoldId(), currentUser.getUserId());
+                    return;
+                }
 
-                // Save ticket
-                ticketController.createTicket(ticket);
+                // Create tickets
+                LocalDateTime bookingTime = LocalDateTime.now();
+                List<Ticket> tickets = new ArrayList<>();
+                for (String seatNumber : seatNumbers) {
+                    Ticket ticket = new Ticket();
+                    ticket.setUserId(currentUser.getUserId());
+                    ticket.setEventId(event.getEventId());
+                    ticket.setSeatNumber(seatNumber);
+                    ticket.setTicketType(type);
+                    ticket.setPrice(event.getTicketPrice());
+                    ticket.setBookingDate(bookingTime);
+                    tickets.add(ticket);
+                }
 
                 // Create payment
                 Payment payment = new Payment();
                 payment.setUserId(currentUser.getUserId());
-                payment.setAmount(event.getTicketPrice().multiply(java.math.BigDecimal.valueOf(quantity)));
+                payment.setAmount(total);
                 payment.setStatus(Payment.PaymentStatus.COMPLETED);
-                payment.setTransactionDate(LocalDateTime.now());
+                payment.setTransactionDate(bookingTime);
 
-                // Save payment
-                paymentController.createPayment(payment);
+                // Turn the hold into tickets and save them with the payment in one transaction
+                ticketController.convertHold(hold.getHoldId(), tickets, payment);
 
                 JOptionPane.showMessageDialog(this,
-                        "Ticket booked successfully",
+                        "Booked seats " + String.join(", ", seatNumbers),
                         "Success",
                         JOptionPane.INFORMATION_MESSAGE);
 
@@ -791,6 +948,10 @@ public class CustomerDashboard extends JFrame {
                 details.append("Price: ").append(ticket.getPrice()).append("\n");
                 details.append("Type: ").append(ticket.getTicketType()).append("\n");
                 details.append("Booking Date: ").append(ticket.getBookingDate()).append("\n");
+                // Shown at the gate, where it is checked without a database lookup
+                if (CheckInController.isEntryCodeEnabled()) {
+                    details.append("Entry Code: ").append(checkInController.getEntryToken(ticket)).append("\n");
+                }
 
                 JOptionPane.showMessageDialog(this,
                         details.toString(),
@@ -0,0 +1,85 @@
+package com.etms.ui;
+
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.table.DefaultTableModel;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a dashboard's {@link TableLoader}s and shows their progress.
+ * The panel lists the tables still loading with their row counts next to a progress bar,
+ * hides itself when nothing is loading, and reports a failed load in an error dialog.
+ * All methods must be called on the Event Dispatch Thread.
+ */
+class LoadingPanel extends JPanel {
+    private final JLabel loadingLabel = new JLabel();
+    private final JProgressBar loadingBar = new JProgressBar();
+    private final List<TableLoader> loaders = new ArrayList<>();
+
+    LoadingPanel(Color foreground) {
+        super(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        setOpaque(false);
+        loadingLabel.setForeground(foreground);
+        loadingBar.setIndeterminate(true);
+        loadingBar.setVisible(false);
+        add(loadingLabel);
+        add(loadingBar);
+    }
+
+    // Clears the table and starts filling it from the source in the background
+    TableLoader start(String name, DefaultTableModel model, TableLoader.RowSource source) {
+        TableLoader loader = new TableLoader(name, model, source, this::onLoaderUpdate);
+        loaders.add(loader);
+        loader.execute();
+        onLoaderUpdate(loader);
+        return loader;
+    }
+
+    void cancel(TableLoader loader) {
+        if (loader != null) {
+            loader.cancel(true);
+            loaders.remove(loader);
+            updateStatus();
+        }
+    }
+
+    // Cancels any loads still running, e.g. on refresh or when the window closes
+    void cancelAll() {
+        for (TableLoader loader : loaders) {
+            loader.cancel(true);
+        }
+        loaders.clear();
+        updateStatus();
+    }
+
+    private void onLoaderUpdate(TableLoader loader) {
+        if (!loaders.contains(loader)) {
+            return;
+        }
+        if (loader.isDone() && loader.getError() != null) {
+            loaders.remove(loader);
+            JOptionPane.showMessageDialog(this,
+                    "Error loading " + loader.getName() + ": " + loader.getError().getMessage(),
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+        updateStatus();
+    }
+
+    private void updateStatus() {
+        StringBuilder status = new StringBuilder();
+        for (TableLoader active : loaders) {
+            if (!active.isDone()) {
+                status.append(status.length() == 0 ? "Loading " : ", ")
+                        .append(active.getName()).append(" (").append(active.getRowCount()).append(")");
+            }
+        }
+        loadingBar.setVisible(status.length() > 0);
+        loadingLabel.setText(status.toString());
+    }
+}
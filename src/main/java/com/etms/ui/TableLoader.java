@@ -0,0 +1,98 @@
+package com.etms.ui;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.DefaultTableModel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Fills a table model from a background thread.
+ * Rows produced by the {@link RowSource} are published to the Event Dispatch Thread in
+ * chunks as they arrive, so large tables appear incrementally and the UI stays responsive.
+ * Loaders for different tables run in parallel on SwingWorker's thread pool.
+ */
+class TableLoader extends SwingWorker<Integer, Object[]> {
+
+    // Produces table rows on a background thread by passing each one to the sink
+    @FunctionalInterface
+    interface RowSource {
+        void load(Consumer<Object[]> sink) throws Exception;
+    }
+
+    private final String name;
+    private final DefaultTableModel model;
+    private final RowSource source;
+    private final Consumer<TableLoader> listener;
+    private volatile int rowCount;
+    private Exception error;
+
+    // Must be created on the Event Dispatch Thread; clears the table immediately
+    TableLoader(String name, DefaultTableModel model, RowSource source, Consumer<TableLoader> listener) {
+        this.name = name;
+        this.model = model;
+        this.source = source;
+        this.listener = listener;
+        model.setRowCount(0);
+    }
+
+    @Override
+    protected Integer doInBackground() throws Exception {
+        source.load(row -> {
+            if (isCancelled()) {
+                throw new CancellationException(name + " loading cancelled");
+            }
+            publish(row);
+            rowCount++;
+        });
+        return rowCount;
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    protected void process(List<Object[]> rows) {
+        if (isCancelled()) {
+            return;
+        }
+        // Append the whole chunk and fire a single insert event instead of one per row
+        int first = model.getRowCount();
+        Vector data = model.getDataVector();
+        for (Object[] row : rows) {
+            data.add(new Vector<>(Arrays.asList(row)));
+        }
+        model.fireTableRowsInserted(first, model.getRowCount() - 1);
+        listener.accept(this);
+    }
+
+    @Override
+    protected void done() {
+        if (!isCancelled()) {
+            try {
+                get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (CancellationException e) {
+                // Cancelled from within the row source
+            } catch (ExecutionException e) {
+                error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        listener.accept(this);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    // Failure raised by the row source, or null; only meaningful once the loader is done
+    Exception getError() {
+        return error;
+    }
+}
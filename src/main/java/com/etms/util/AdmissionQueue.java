@@ -0,0 +1,288 @@
+package com.etms.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Virtual waiting room in front of a contended path such as seat booking. Each user takes a
+ * numbered token and users are admitted strictly in token order by a token bucket, so a rush
+ * of clients reaches the database at a steady rate instead of all at once. The admission rate
+ * follows an exponentially weighted moving average of completed bookings per second, with some
+ * headroom so it can climb as the system keeps up, bounded by a minimum and maximum rate; the
+ * number of users admitted at once is capped as well. When nobody is waiting, users are
+ * admitted as soon as they arrive.
+ *
+ * <p>An admission lasts a fixed window. Waiting users must keep polling their status; tokens
+ * not polled for a while are treated as abandoned and skipped when they reach the front.
+ *
+ * <p>The queue is in-memory state of one JVM. It only limits load when all bookings go through
+ * a single shared server process; desktop clients that each talk to the database directly
+ * would each have their own queue, which is why {@code etms.admission.enabled} defaults to off.
+ */
+public class AdmissionQueue {
+    // Weight of the newest one-second throughput sample in the moving average
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final long SAMPLE_MILLIS = 1000;
+    // Admit this much faster than bookings complete, so the rate can grow with capacity
+    private static final double HEADROOM = 1.25;
+
+    private final double minRate;
+    private final double maxRate;
+    private final int maxActive;
+    private final long admitMillis;
+    private final long abandonMillis;
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final ArrayDeque<Entry> waiting = new ArrayDeque<>();
+    // In admission order, which is also expiry order since every window is the same length
+    private final ArrayDeque<Entry> admitted = new ArrayDeque<>();
+    private long nextToken;
+    private int waitingCount;
+    private int activeCount;
+    private double permits;
+    private long lastRefillMillis;
+    private double throughput;
+    private long sampleStartMillis;
+    private int sampleCompletions;
+    private long admittedTotal;
+    private long completedTotal;
+    private long abandonedTotal;
+
+    private enum State { WAITING, ADMITTED, DONE }
+
+    private static final class Entry {
+        final int userId;
+        final long token;
+        State state = State.WAITING;
+        long lastSeenMillis;
+        long admittedUntilMillis;
+
+        Entry(int userId, long token) {
+            this.userId = userId;
+            this.token = token;
+        }
+    }
+
+    /** A user's place in the queue, as of the call that returned it. */
+    public static final class Status {
+        private final long token;
+        private final boolean admitted;
+        private final int position;
+        private final long estimatedWaitSeconds;
+        private final long admittedUntilMillis;
+
+        Status(long token, boolean admitted, int position, long estimatedWaitSeconds, long admittedUntilMillis) {
+            this.token = token;
+            this.admitted = admitted;
+            this.position = position;
+            this.estimatedWaitSeconds = estimatedWaitSeconds;
+            this.admittedUntilMillis = admittedUntilMillis;
+        }
+
+        public long getToken() {
+            return token;
+        }
+
+        public boolean isAdmitted() {
+            return admitted;
+        }
+
+        // Place in line, 1 being next; an upper bound, since users ahead may have abandoned. 0 once admitted
+        public int getPosition() {
+            return position;
+        }
+
+        public long getEstimatedWaitSeconds() {
+            return estimatedWaitSeconds;
+        }
+
+        // When the admission ends, in epoch millis; 0 while waiting
+        public long getAdmittedUntilMillis() {
+            return admittedUntilMillis;
+        }
+
+        @Override
+        public String toString() {
+            return admitted ? "Status{token=" + token + ", admitted}"
+                    : "Status{token=" + token + ", position=" + position + ", eta=" + estimatedWaitSeconds + "s}";
+        }
+    }
+
+    public AdmissionQueue(double minRate, double maxRate, int maxActive, long admitSeconds, long abandonSeconds) {
+        if (minRate <= 0 || maxRate < minRate || maxActive <= 0) {
+            throw new IllegalArgumentException("Invalid admission limits");
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.maxActive = maxActive;
+        this.admitMillis = TimeUnit.SECONDS.toMillis(admitSeconds);
+        this.abandonMillis = TimeUnit.SECONDS.toMillis(abandonSeconds);
+        long now = System.currentTimeMillis();
+        this.lastRefillMillis = now;
+        this.sampleStartMillis = now;
+        this.permits = 1;
+    }
+
+    // Takes a token for the user, or returns their current place if they already have one
+    public synchronized Status enter(int userId) {
+        long now = System.currentTimeMillis();
+        advance(now);
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            entry = new Entry(userId, ++nextToken);
+            entries.put(userId, entry);
+            waiting.addLast(entry);
+            waitingCount++;
+        }
+        entry.lastSeenMillis = now;
+        advance(now);
+        return statusOf(entry, now);
+    }
+
+    // Current place of the user, or null if they hold no token; also counts as a sign of life
+    public synchronized Status getStatus(int userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastSeenMillis = now;
+        advance(now);
+        return entry.state == State.DONE ? null : statusOf(entry, now);
+    }
+
+    public synchronized boolean isAdmitted(int userId) {
+        long now = System.currentTimeMillis();
+        advance(now);
+        Entry entry = entries.get(userId);
+        return entry != null && entry.state == State.ADMITTED;
+    }
+
+    // Gives up the user's token or admission, freeing the place for the next user
+    public synchronized void leave(int userId) {
+        Entry entry = entries.remove(userId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.state == State.WAITING) {
+            waitingCount--;
+        } else if (entry.state == State.ADMITTED) {
+            activeCount--;
+        }
+        // Left in the deques and skipped when reached
+        entry.state = State.DONE;
+        advance(System.currentTimeMillis());
+    }
+
+    // Counts a completed booking towards the measured throughput that sets the admission rate
+    public synchronized void recordCompletion() {
+        sampleCompletions++;
+        completedTotal++;
+    }
+
+    public synchronized int getWaitingCount() {
+        return waitingCount;
+    }
+
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+
+    // Users admitted per second at the moment
+    public synchronized double getAdmitRate() {
+        return admitRate();
+    }
+
+    // Moving average of completed bookings per second
+    public synchronized double getThroughput() {
+        return throughput;
+    }
+
+    public synchronized long getAdmittedCount() {
+        return admittedTotal;
+    }
+
+    public synchronized long getCompletedCount() {
+        return completedTotal;
+    }
+
+    public synchronized long getAbandonedCount() {
+        return abandonedTotal;
+    }
+
+    // Ends expired admissions, updates the throughput average and admits whoever the bucket allows
+    private void advance(long now) {
+        while (!admitted.isEmpty()) {
+            Entry entry = admitted.peekFirst();
+            if (entry.state == State.ADMITTED && entry.admittedUntilMillis > now) {
+                break;
+            }
+            admitted.pollFirst();
+            if (entry.state == State.ADMITTED) {
+                entry.state = State.DONE;
+                entries.remove(entry.userId);
+                activeCount--;
+            }
+        }
+
+        long sampleMillis = now - sampleStartMillis;
+        if (sampleMillis >= SAMPLE_MILLIS) {
+            double sample = sampleCompletions * 1000.0 / sampleMillis;
+            throughput += EWMA_WEIGHT * (sample - throughput);
+            sampleCompletions = 0;
+            sampleStartMillis = now;
+        }
+
+        double rate = admitRate();
+        if (now > lastRefillMillis) {
+            // Up to one second's worth of admissions can build up while nobody is waiting
+            permits = Math.min(Math.max(1, rate), permits + rate * (now - lastRefillMillis) / 1000.0);
+            lastRefillMillis = now;
+        }
+        Entry next;
+        while (permits >= 1 && activeCount < maxActive && (next = nextWaiting(now)) != null) {
+            waiting.pollFirst();
+            waitingCount--;
+            next.state = State.ADMITTED;
+            next.admittedUntilMillis = now + admitMillis;
+            admitted.addLast(next);
+            activeCount++;
+            admittedTotal++;
+            permits -= 1;
+        }
+    }
+
+    // Front of the line after dropping tokens that were given up or abandoned
+    private Entry nextWaiting(long now) {
+        while (!waiting.isEmpty()) {
+            Entry entry = waiting.peekFirst();
+            if (entry.state == State.WAITING && now - entry.lastSeenMillis <= abandonMillis) {
+                return entry;
+            }
+            waiting.pollFirst();
+            if (entry.state == State.WAITING) {
+                entry.state = State.DONE;
+                entries.remove(entry.userId);
+                waitingCount--;
+                abandonedTotal++;
+            }
+        }
+        return null;
+    }
+
+    private double admitRate() {
+        return Math.max(minRate, Math.min(maxRate, throughput * HEADROOM));
+    }
+
+    private Status statusOf(Entry entry, long now) {
+        if (entry.state == State.ADMITTED) {
+            return new Status(entry.token, true, 0, 0, entry.admittedUntilMillis);
+        }
+        Entry front = nextWaiting(now);
+        int position = front == null ? 1 : (int) Math.min(Integer.MAX_VALUE, entry.token - front.token + 1);
+        long eta = (long) Math.ceil(position / admitRate());
+        return new Status(entry.token, false, position, eta, 0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.etms.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Application settings loaded from {@code etms.properties} on the classpath.
+ * Any key can be overridden with a JVM system property of the same name
+ * (e.g. {@code -Detms.db.url=...}) or an environment variable where dots are
+ * replaced by underscores and letters upper-cased (e.g. {@code ETMS_DB_URL}).
+ */
+public final class AppConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
+    private static final String CONFIG_FILE = "etms.properties";
+    private static final Properties properties = new Properties();
+
+    static {
+        try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (in != null) {
+                properties.load(in);
+                logger.info("Loaded configuration from {}", CONFIG_FILE);
+            } else {
+                logger.warn("{} not found on classpath, using defaults", CONFIG_FILE);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read " + CONFIG_FILE, e);
+        }
+    }
+
+    private AppConfig() {
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = System.getenv(key.replace('.', '_').toUpperCase());
+        }
+        if (value == null) {
+            value = properties.getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid integer for {}: {}, using {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid long for {}: {}, using {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid number for {}: {}, using {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,89 @@
+package com.etms.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces lookups by ID into bulk queries, in the style of a DataLoader.
+ * {@link #load} only queues the ID and returns a future; {@link #dispatch} then fetches every
+ * queued ID with one call to the batch function and completes the futures. Results are
+ * remembered, so each ID is fetched at most once. A loader is meant to live for one screen
+ * load or request and then be discarded, so it never serves stale data for long.
+ */
+public class BatchLoader<V> {
+    private final BatchFunction<V> batchFunction;
+    private final int maxBatchSize;
+    private final Map<Integer, CompletableFuture<V>> results = new HashMap<>();
+    private final Map<Integer, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private int batchCount;
+
+    // Fetches the given IDs in one go; IDs with no entity are left out of the result
+    @FunctionalInterface
+    public interface BatchFunction<V> {
+        Map<Integer, V> loadAll(Collection<Integer> ids) throws Exception;
+    }
+
+    public BatchLoader(BatchFunction<V> batchFunction) {
+        this(batchFunction, 1000);
+    }
+
+    // Queued IDs are dispatched automatically once maxBatchSize of them are waiting
+    public BatchLoader(BatchFunction<V> batchFunction, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // Completes with the entity, or null if there is none, once the batch is dispatched
+    public synchronized CompletableFuture<V> load(int id) {
+        CompletableFuture<V> future = results.get(id);
+        if (future == null) {
+            future = new CompletableFuture<>();
+            results.put(id, future);
+            pending.put(id, future);
+            if (pending.size() >= maxBatchSize) {
+                dispatch();
+            }
+        }
+        return future;
+    }
+
+    // Queues and dispatches in one step; for lookups that cannot wait for a batch
+    public V get(int id) throws Exception {
+        CompletableFuture<V> future = load(id);
+        dispatch();
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    // Fetches all queued IDs; a failure completes every future in the batch exceptionally
+    public synchronized void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Integer, CompletableFuture<V>> batch = new LinkedHashMap<>(pending);
+        pending.clear();
+        batchCount++;
+        try {
+            Map<Integer, V> loaded = batchFunction.loadAll(batch.keySet());
+            for (Map.Entry<Integer, CompletableFuture<V>> entry : batch.entrySet()) {
+                entry.getValue().complete(loaded.get(entry.getKey()));
+            }
+        } catch (Exception e) {
+            for (Map.Entry<Integer, CompletableFuture<V>> entry : batch.entrySet()) {
+                results.remove(entry.getKey());
+                entry.getValue().completeExceptionally(e);
+            }
+        }
+    }
+
+    public synchronized int getBatchCount() {
+        return batchCount;
+    }
+}
@@ -1,37 +1,130 @@
 package com.etms.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 
+/**
+ * Provides pooled JDBC connections to the ETMS database.
+ * Connections come from a HikariCP pool configured through {@link AppConfig};
+ * closing a connection returns it to the pool. Read-only queries that tolerate
+ * slightly stale data use {@link #getReadConnection()}, which is served by a
+ * replica when {@code etms.db.replica.urls} is set and by the primary otherwise.
+ * Every connection handed out is measured by {@link QueryMetrics}.
+ */
 public class DatabaseUtil {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseUtil.class);
-    private static final String URL = "jdbc:mysql://localhost:3306/etms";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "mysql@mitiksha";
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/etms";
+    private static final String DEFAULT_USERNAME = "root";
+    private static final String DEFAULT_PASSWORD = "mysql@mitiksha";
+    private static final String POOL_NAME = "etms-pool";
+
+    private static volatile HikariDataSource dataSource;
+    private static volatile ReplicaRouter replicaRouter;
 
     static {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            logger.info("MySQL JDBC Driver loaded successfully");
+            Class.forName(AppConfig.getString("etms.db.driver", "com.mysql.cj.jdbc.Driver"));
+            logger.info("JDBC Driver loaded successfully");
         } catch (ClassNotFoundException e) {
-            logger.error("Failed to load MySQL JDBC Driver", e);
-            throw new RuntimeException("Failed to load MySQL JDBC Driver", e);
+            logger.error("Failed to load JDBC Driver", e);
+            throw new RuntimeException("Failed to load JDBC Driver", e);
         }
     }
 
+    private DatabaseUtil() {
+    }
+
     public static Connection getConnection() throws SQLException {
         try {
-            return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+            return QueryMetrics.wrap(getDataSource().getConnection());
         } catch (SQLException e) {
             logger.error("Failed to get database connection", e);
             throw e;
         }
     }
 
+    public static DataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DatabaseUtil.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    HikariConfig config = buildConfig();
+                    ds = new HikariDataSource(config);
+                    replicaRouter = ReplicaRouter.create(ds, config);
+                    dataSource = ds;
+                    Runtime.getRuntime().addShutdownHook(new Thread(DatabaseUtil::shutdown, "etms-pool-shutdown"));
+                    logger.info("Connection pool {} started (max size {})", POOL_NAME, ds.getMaximumPoolSize());
+                }
+            }
+        }
+        return ds;
+    }
+
+    // Connection for reads that may lag the primary by up to etms.db.replica.maxLagSeconds
+    public static Connection getReadConnection() throws SQLException {
+        getDataSource();
+        ReplicaRouter router = replicaRouter;
+        return router != null ? QueryMetrics.wrap(router.getReadConnection()) : getConnection();
+    }
+
+    // Like getReadConnection(), but stays on the primary right after the user has written
+    public static Connection getReadConnection(int userId) throws SQLException {
+        getDataSource();
+        ReplicaRouter router = replicaRouter;
+        return router != null ? QueryMetrics.wrap(router.getReadConnection(userId)) : getConnection();
+    }
+
+    // Marks that the user just wrote to the primary, for read-your-writes routing
+    public static void recordWrite(int userId) {
+        ReplicaRouter router = replicaRouter;
+        if (router != null) {
+            router.recordWrite(userId);
+        }
+    }
+
+    // How long a write may stay invisible to getReadConnection() reads; 0 without replicas
+    public static long getReadYourWritesNanos() {
+        ReplicaRouter router = replicaRouter;
+        return router != null ? router.getReadYourWritesNanos() : 0;
+    }
+
+    // Returns live pool metrics (active, idle, total, waiting threads), or null before first use
+    public static HikariPoolMXBean getPoolMetrics() {
+        HikariDataSource ds = dataSource;
+        return ds != null ? ds.getHikariPoolMXBean() : null;
+    }
+
+    public static String getPoolStats() {
+        HikariPoolMXBean pool = getPoolMetrics();
+        if (pool == null) {
+            return POOL_NAME + " not started";
+        }
+        String stats = String.format("%s: active=%d, idle=%d, total=%d, waiting=%d", POOL_NAME,
+                pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection());
+        ReplicaRouter router = replicaRouter;
+        return router != null ? stats + "; " + router.getStats() : stats;
+    }
+
+    public static synchronized void shutdown() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            logger.info("Shutting down connection pool ({})", getPoolStats());
+            if (replicaRouter != null) {
+                replicaRouter.shutdown();
+            }
+            dataSource.close();
+        }
+    }
+
     public static void closeConnection(Connection connection) {
         if (connection != null) {
             try {
@@ -41,4 +134,58 @@ public class DatabaseUtil {
             }
         }
     }
-}
\ No newline at end of file
+
+    // True if the statement (or a batch entry) broke a unique key; MySQL reports 23000, H2 23505
+    public static boolean isDuplicateKey(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+            if (t instanceof SQLException) {
+                String state = ((SQLException) t).getSQLState();
+                if (state != null && state.startsWith("23")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static HikariConfig buildConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME);
+        config.setJdbcUrl(AppConfig.getString("etms.db.url", DEFAULT_URL));
+        config.setUsername(AppConfig.getString("etms.db.username", DEFAULT_USERNAME));
+        config.setPassword(AppConfig.getString("etms.db.password", DEFAULT_PASSWORD));
+
+        config.setMaximumPoolSize(AppConfig.getInt("etms.db.pool.maxSize", 10));
+        config.setMinimumIdle(AppConfig.getInt("etms.db.pool.minIdle", 2));
+        config.setConnectionTimeout(AppConfig.getLong("etms.db.pool.connectionTimeoutMs", 30000));
+        config.setIdleTimeout(AppConfig.getLong("etms.db.pool.idleTimeoutMs", 600000));
+        config.setMaxLifetime(AppConfig.getLong("etms.db.pool.maxLifetimeMs", 1800000));
+        // Idle connections are pinged so sockets dropped by the server or a firewall are replaced
+        // before a DAO borrows them; borrowed connections are validated within validationTimeoutMs
+        config.setKeepaliveTime(AppConfig.getLong("etms.db.pool.keepaliveTimeMs", 120000));
+        config.setValidationTimeout(AppConfig.getLong("etms.db.pool.validationTimeoutMs", 5000));
+        config.setLeakDetectionThreshold(AppConfig.getLong("etms.db.pool.leakDetectionThresholdMs", 0));
+        // Let the application start even when the database is down; getConnection() will fail instead
+        config.setInitializationFailTimeout(AppConfig.getLong("etms.db.pool.initializationFailTimeoutMs", -1));
+        config.setRegisterMbeans(AppConfig.getBoolean("etms.db.pool.registerMbeans", true));
+
+        // MySQL Connector/J statement cache and batching; other drivers reject these properties
+        if (!config.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            return config;
+        }
+        config.addDataSourceProperty("cachePrepStmts",
+                AppConfig.getString("etms.db.cachePrepStmts", "true"));
+        config.addDataSourceProperty("prepStmtCacheSize",
+                AppConfig.getString("etms.db.prepStmtCacheSize", "250"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit",
+                AppConfig.getString("etms.db.prepStmtCacheSqlLimit", "2048"));
+        config.addDataSourceProperty("useServerPrepStmts",
+                AppConfig.getString("etms.db.useServerPrepStmts", "true"));
+        config.addDataSourceProperty("rewriteBatchedStatements",
+                AppConfig.getString("etms.db.rewriteBatchedStatements", "true"));
+        return config;
+    }
+}
@@ -0,0 +1,358 @@
+package com.etms.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement query metrics for every DAO. {@link DatabaseUtil} hands out connections
+ * wrapped in a JDBC proxy that times each execute call and counts calls, errors and rows
+ * (rows read through the result set, or rows affected by updates) against the statement's
+ * SQL, with a {@link LatencyHistogram} for percentiles. Statements slower than
+ * {@code etms.metrics.slowQueryMs} are logged at WARN with only the type and length of each
+ * parameter, since parameters carry emails, amounts and password hashes. Their values follow
+ * at DEBUG, with text parameters of statements that touch passwords, secrets or tokens masked.
+ *
+ * <p>SQL is grouped after collapsing whitespace and placeholder lists, so {@code IN (?, ?, ?)}
+ * with any number of IDs counts as one statement. Only the time spent executing is measured,
+ * not the time the caller spends reading the rows.
+ */
+public final class QueryMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+    private static final boolean ENABLED = AppConfig.getBoolean("etms.metrics.enabled", true);
+    private static final long SLOW_QUERY_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            AppConfig.getLong("etms.metrics.slowQueryMs", 500));
+    private static final int MAX_STATEMENTS = AppConfig.getInt("etms.metrics.maxStatements", 500);
+    private static final int MAX_PARAMETER_LENGTH = 100;
+    private static final String OTHER_SQL = "(other statements)";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern SENSITIVE_SQL = Pattern.compile("(?i)pass|secret|token|hash");
+
+    private static final ConcurrentMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    // Normalized SQL by raw SQL, so the regular expressions run once per distinct string
+    private static final ConcurrentMap<String, String> normalized = new ConcurrentHashMap<>();
+    private static final LongAdder slowQueryCount = new LongAdder();
+
+    private QueryMetrics() {
+    }
+
+    /** Counters and latencies of one SQL statement. */
+    public static final class StatementStats {
+        private final String sql;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+
+    // Wraps a pooled connection so its statements are measured; closing it still returns it to the pool
+    public static Connection wrap(Connection connection) {
+        if (!ENABLED || connection == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // Statements seen so far, slowest in total first
+    public static List<StatementStats> getStatementStats() {
+        List<StatementStats> stats = new ArrayList<>(statements.values());
+        stats.sort(Comparator.comparingDouble((StatementStats s) -> s.latency.getTotalMillis()).reversed());
+        return stats;
+    }
+
+    public static long getSlowQueryCount() {
+        return slowQueryCount.sum();
+    }
+
+    public static void reset() {
+        statements.clear();
+        slowQueryCount.reset();
+    }
+
+    private static StatementStats statsFor(String sql) {
+        String key = normalized.get(sql);
+        if (key == null) {
+            key = PLACEHOLDER_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("?, ...");
+            if (normalized.size() < MAX_STATEMENTS * 4) {
+                normalized.put(sql, key);
+            }
+        }
+        StatementStats stats = statements.get(key);
+        if (stats == null) {
+            // Statements built with literal values would otherwise grow the map without bound
+            if (statements.size() >= MAX_STATEMENTS) {
+                key = OTHER_SQL;
+            }
+            stats = statements.computeIfAbsent(key, StatementStats::new);
+        }
+        return stats;
+    }
+
+    private static void record(String sql, long nanos, long rowCount, boolean failed, Map<Integer, Object> parameters,
+            int batchSize) {
+        StatementStats stats = statsFor(sql);
+        stats.calls.increment();
+        stats.latency.recordNanos(nanos);
+        if (rowCount > 0) {
+            stats.rows.add(rowCount);
+        }
+        if (failed) {
+            stats.errors.increment();
+        }
+        if (nanos >= SLOW_QUERY_NANOS) {
+            slowQueryCount.increment();
+            logger.warn("Slow query ({} ms{}): {} parameters {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    batchSize > 0 ? ", batch of " + batchSize : "", sql, describe(parameters, false, false));
+            if (logger.isDebugEnabled()) {
+                logger.debug("Slow query parameter values: {}",
+                        describe(parameters, true, SENSITIVE_SQL.matcher(sql).find()));
+            }
+        }
+    }
+
+    // Lists parameters as type and length, or as values with text masked when the statement is sensitive
+    private static String describe(Map<Integer, Object> parameters, boolean values, boolean sensitive) {
+        if (parameters == null || parameters.isEmpty()) {
+            return "[]";
+        }
+        StringBuilder text = new StringBuilder("[");
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (text.length() > 1) {
+                text.append(", ");
+            }
+            text.append(parameter.getKey()).append('=');
+            Object value = parameter.getValue();
+            if (value == null) {
+                text.append("null");
+            } else if (!values) {
+                text.append(value.getClass().getSimpleName());
+                if (value instanceof CharSequence) {
+                    text.append('(').append(((CharSequence) value).length()).append(')');
+                } else if (value instanceof byte[]) {
+                    text.append('(').append(((byte[]) value).length).append(')');
+                }
+            } else if (sensitive && (value instanceof CharSequence || value instanceof byte[])) {
+                text.append("***");
+            } else {
+                String shown = String.valueOf(value);
+                if (shown.length() > MAX_PARAMETER_LENGTH) {
+                    shown = shown.substring(0, MAX_PARAMETER_LENGTH) + "...";
+                }
+                text.append(shown);
+            }
+        }
+        return text.append(']').toString();
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "QueryMetrics[" + target + "]";
+                default:
+                    break;
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof CallableStatement) {
+                return proxy(CallableStatement.class, (Statement) result, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement && args != null && args[0] instanceof String) {
+                return proxy(PreparedStatement.class, (Statement) result, (String) args[0]);
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, (Statement) result, null);
+            }
+            return result;
+        }
+
+        private static Object proxy(Class<?> type, Statement statement, String sql) {
+            return Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(), new Class<?>[] { type },
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        // SQL of a prepared statement; plain statements take it from each execute call
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private String lastSql;
+        private String batchSql;
+        private int batchSize;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args, name);
+            }
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "clearParameters":
+                    parameters.clear();
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    if (args != null && args.length == 1 && args[0] instanceof String) {
+                        batchSql = (String) args[0];
+                    }
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                default:
+                    if (sql != null && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        parameters.put((Integer) args[0], args[1]);
+                    }
+                    break;
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof ResultSet && "getResultSet".equals(name) && lastSql != null) {
+                return countRows((ResultSet) result, statsFor(lastSql));
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args, String name) throws Throwable {
+            String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                    : sql != null ? sql : batchSql;
+            if (executed == null) {
+                return invokeTarget(target, method, args);
+            }
+            lastSql = executed;
+            boolean batch = name.endsWith("Batch");
+            int batched = batch ? batchSize : 0;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                record(executed, System.nanoTime() - start, 0, true, parameters, batched);
+                throw e;
+            } finally {
+                if (batch) {
+                    batchSize = 0;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            record(executed, elapsed, affectedRows(result), false, parameters, batched);
+            if (result instanceof ResultSet) {
+                return countRows((ResultSet) result, statsFor(executed));
+            }
+            return result;
+        }
+
+        private static long affectedRows(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            long total = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    total += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    total += Math.max(0, count);
+                }
+            }
+            return total;
+        }
+
+        private static ResultSet countRows(ResultSet resultSet, StatementStats stats) {
+            return (ResultSet) Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(),
+                    new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                break;
+                        }
+                        Object result = invokeTarget(resultSet, method, args);
+                        if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                            stats.rows.increment();
+                        }
+                        return result;
+                    });
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.etms.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only queries to replica pools configured with {@code etms.db.replica.urls}.
+ * Replicas are polled for replication lag and skipped while they are unreachable or more than
+ * {@code etms.db.replica.maxLagSeconds} behind; reads fall back to the primary when none qualify.
+ * A user who has just written is pinned to the primary for {@code etms.db.replica.readYourWritesMs}
+ * so their own bookings are visible immediately.
+ */
+final class ReplicaRouter {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+    private static final String[] LAG_COLUMNS = { "Seconds_Behind_Source", "Seconds_Behind_Master" };
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final long readYourWritesNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ConcurrentMap<Integer, Long> lastWrites = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService lagChecker;
+
+    private static final class Replica {
+        final String url;
+        final HikariDataSource dataSource;
+        volatile boolean usable;
+        volatile long lagSeconds = -1;
+
+        Replica(String url, HikariDataSource dataSource) {
+            this.url = url;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private ReplicaRouter(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagSeconds = AppConfig.getLong("etms.db.replica.maxLagSeconds", 5);
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(
+                AppConfig.getLong("etms.db.replica.readYourWritesMs", 10000));
+
+        long interval = AppConfig.getLong("etms.db.replica.lagCheckSeconds", 5);
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "etms-replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkReplicas, 0, interval, TimeUnit.SECONDS);
+    }
+
+    // Returns a router for the configured replicas, or null when none are configured
+    static ReplicaRouter create(DataSource primary, HikariConfig primaryConfig) {
+        String urls = AppConfig.getString("etms.db.replica.urls", "");
+        List<Replica> replicas = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            url = url.trim();
+            if (url.isEmpty()) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            primaryConfig.copyStateTo(config);
+            config.setPoolName("etms-replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url);
+            config.setUsername(AppConfig.getString("etms.db.replica.username", primaryConfig.getUsername()));
+            config.setPassword(AppConfig.getString("etms.db.replica.password", primaryConfig.getPassword()));
+            config.setMaximumPoolSize(AppConfig.getInt("etms.db.replica.pool.maxSize",
+                    primaryConfig.getMaximumPoolSize()));
+            config.setReadOnly(true);
+            config.setRegisterMbeans(false);
+            replicas.add(new Replica(url, new HikariDataSource(config)));
+        }
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        logger.info("Routing reads across {} replica(s)", replicas.size());
+        return new ReplicaRouter(primary, Collections.unmodifiableList(replicas));
+    }
+
+    Connection getReadConnection() throws SQLException {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.usable) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.usable = false;
+                logger.warn("Replica {} unavailable, falling back: {}", replica.url, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    Connection getReadConnection(int userId) throws SQLException {
+        Long writtenAt = lastWrites.get(userId);
+        if (writtenAt != null && System.nanoTime() - writtenAt < readYourWritesNanos) {
+            return primary.getConnection();
+        }
+        return getReadConnection();
+    }
+
+    void recordWrite(int userId) {
+        lastWrites.put(userId, System.nanoTime());
+    }
+
+    long getReadYourWritesNanos() {
+        return readYourWritesNanos;
+    }
+
+    String getStats() {
+        StringBuilder sb = new StringBuilder();
+        for (Replica replica : replicas) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(replica.dataSource.getPoolName())
+                    .append(replica.usable ? ": lag=" + replica.lagSeconds + "s" : ": unavailable");
+        }
+        return sb.toString();
+    }
+
+    void shutdown() {
+        lagChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.dataSource.getConnection()) {
+                long lag = readLagSeconds(conn);
+                boolean usable = lag >= 0 && lag <= maxLagSeconds;
+                if (usable != replica.usable) {
+                    logger.info("Replica {} {} (lag {}s)", replica.url, usable ? "in rotation" : "out of rotation", lag);
+                }
+                replica.lagSeconds = lag;
+                replica.usable = usable;
+            } catch (SQLException e) {
+                if (replica.usable) {
+                    logger.warn("Replica {} out of rotation: {}", replica.url, e.getMessage());
+                }
+                replica.usable = false;
+            }
+        }
+
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(writtenAt -> now - writtenAt >= readYourWritesNanos);
+    }
+
+    // Seconds behind the primary; 0 for a server that is not replicating (e.g. a local stand-in),
+    // -1 when replication is configured but stopped
+    private static long readLagSeconds(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            ResultSet rs;
+            try {
+                rs = stmt.executeQuery("SHOW REPLICA STATUS");
+            } catch (SQLException e) {
+                // Servers before MySQL 8.0.22 only understand the old syntax
+                rs = stmt.executeQuery("SHOW SLAVE STATUS");
+            }
+            try {
+                if (!rs.next()) {
+                    return 0;
+                }
+                ResultSetMetaData meta = rs.getMetaData();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    String column = meta.getColumnLabel(i);
+                    for (String lagColumn : LAG_COLUMNS) {
+                        if (lagColumn.equalsIgnoreCase(column)) {
+                            long lag = rs.getLong(i);
+                            return rs.wasNull() ? -1 : lag;
+                        }
+                    }
+                }
+                return -1;
+            } finally {
+                rs.close();
+            }
+        }
+    }
+}
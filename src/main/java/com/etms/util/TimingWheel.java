@@ -0,0 +1,168 @@
+package com.etms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for large numbers of timeouts.
+ * Time advances in fixed ticks. Level 0 has one slot per tick; each higher level has slots
+ * {@code SLOTS} times as wide, and a timeout is filed at the lowest level whose span covers
+ * it. When a lower level wraps around, the matching higher-level slot is cascaded down, so
+ * every timeout moves at most {@code LEVELS} times before it fires. Scheduling and
+ * cancelling are O(1), and advancing costs O(1) per tick plus the timeouts that fire. Nothing
+ * runs on its own: the owner calls {@link #advanceTo} periodically and handles the expired items.
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Timeout[][] wheels = (Timeout[][]) new TimingWheel.Timeout[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    /**
+     * A scheduled item. Timeouts sit in an intrusive doubly linked list per slot, so
+     * cancelling one unlinks it in constant time.
+     */
+    public final class Timeout {
+        private final T item;
+        private final long deadlineTick;
+        private Timeout prev;
+        private Timeout next;
+        private int level = -1;
+        private int slot;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineTick * tickMillis;
+        }
+
+        // Returns false if the timeout already fired or was cancelled
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (level < 0) {
+                    return false;
+                }
+                unlink(this);
+                size--;
+                return true;
+            }
+        }
+    }
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // Schedules the item to expire at the given time, rounded up to the next tick
+    public synchronized Timeout schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        deadlineTick = Math.max(currentTick + 1, Math.min(deadlineTick, currentTick + MAX_DELAY_TICKS));
+        Timeout timeout = new Timeout(item, deadlineTick);
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    // Moves time forward to the given instant and returns the items that expired, in deadline order
+    public synchronized List<T> advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            int slot = (int) (currentTick & SLOT_MASK);
+            Timeout timeout = wheels[0][slot];
+            wheels[0][slot] = null;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout.level = -1;
+                size--;
+                expired.add(timeout.item);
+                timeout = next;
+            }
+            if (size == 0) {
+                // Nothing left to fire; skip straight to the target instead of walking empty ticks
+                currentTick = targetTick;
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    // Re-files the timeouts of each higher-level slot whose span starts at the current tick
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if (((currentTick >>> (SLOT_BITS * level - SLOT_BITS)) & SLOT_MASK) != 0) {
+                return;
+            }
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timeout timeout = wheels[level][slot];
+            wheels[level][slot] = null;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                insert(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    private void insert(Timeout timeout) {
+        long delay = Math.max(0, timeout.deadlineTick - currentTick);
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((timeout.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        timeout.level = level;
+        timeout.slot = slot;
+        Timeout head = wheels[level][slot];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        wheels[level][slot] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheels[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+    }
+}
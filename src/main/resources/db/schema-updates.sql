@@ -0,0 +1,45 @@
+-- Schema changes required by the current ETMS code base.
+-- Apply in order against the etms database; each statement is safe to run once.
+
+-- A seat can be sold only once per event. TicketDAO.reserveSeat relies on this
+-- key to turn concurrent claims for the same seat into a clean conflict.
+ALTER TABLE Ticket ADD CONSTRAINT uq_ticket_event_seat UNIQUE (EventID, SeatNumber);
+
+-- Event length, used for venue scheduling conflicts. Existing events keep the
+-- two hours that were previously assumed for every event.
+ALTER TABLE Event ADD COLUMN DurationMinutes INT NOT NULL DEFAULT 120;
+CREATE INDEX idx_event_venue_date ON Event (VenueID, Date);
+
+-- Event.AvailableSeats is kept in step with ticket sales by the booking and
+-- cancellation transactions. Initialise it once from venue capacity and the
+-- tickets sold so far.
+UPDATE Event e JOIN Venue v ON e.VenueID = v.VenueID
+SET e.AvailableSeats = v.Capacity - (SELECT COUNT(*) FROM Ticket t WHERE t.EventID = e.EventID);
+
+-- Seating layouts: sections, rows, seat ranges and categories in the compact
+-- spec format parsed by com.etms.inventory.VenueLayout, e.g.
+-- 'Stalls|A-J|1-20|General;Circle|K-L|1-24|VIP'. Venues without a row here keep
+-- the single-row numbering A1..A{Capacity}.
+CREATE TABLE VenueLayout (
+    VenueID INT PRIMARY KEY,
+    LayoutSpec TEXT NOT NULL,
+    CONSTRAINT fk_venue_layout_venue FOREIGN KEY (VenueID) REFERENCES Venue (VenueID) ON DELETE CASCADE
+);
+
+-- Gate check-ins, written in batches by com.etms.checkin.CheckInService. A
+-- ticket's first scan is kept; the key on TicketID makes later scans no-ops.
+CREATE TABLE TicketScan (
+    TicketID INT PRIMARY KEY,
+    EventID INT NOT NULL,
+    Gate VARCHAR(50),
+    ScannedAt DATETIME NOT NULL,
+    CONSTRAINT fk_ticket_scan_ticket FOREIGN KEY (TicketID) REFERENCES Ticket (TicketID) ON DELETE CASCADE
+);
+CREATE INDEX idx_ticket_scan_event ON TicketScan (EventID);
+
+-- One account per email address. The registration check consults an in-process
+-- Bloom filter that does not see other instances' recent sign-ups, so these keys
+-- are what keeps a second account from being created; save() reports a clash as
+-- "Email already registered". Merge any existing duplicates before applying.
+ALTER TABLE User ADD CONSTRAINT uq_user_email UNIQUE (Email);
+ALTER TABLE organizers ADD CONSTRAINT uq_organizer_email UNIQUE (email);